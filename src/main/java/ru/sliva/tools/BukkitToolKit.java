@@ -7,8 +7,9 @@ import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 import ru.sliva.tools.command.Command;
 import ru.sliva.tools.command.CommandManager;
+import ru.sliva.tools.command.MetricsCommand;
+import ru.sliva.tools.scheduler.DistributedTask;
 import ru.sliva.tools.scheduler.Scheduler;
-import ru.sliva.tools.scheduler.Task;
 import ru.sliva.tools.scoreboard.ScoreboardManager;
 import ru.sliva.tools.scoreboard.Sidebar;
 
@@ -20,6 +21,7 @@ public final class BukkitToolKit extends JavaPlugin{
     public void onEnable() {
         Bukkit.getPluginManager().registerEvents(new CommandManager(), this);
         Bukkit.getPluginManager().registerEvents(new Scheduler(), this);
+        Bukkit.getPluginManager().registerEvents(new ScoreboardManager(), this);
 
         Command testCommand = Command.builder()
                 .plugin(this)
@@ -36,19 +38,19 @@ public final class BukkitToolKit extends JavaPlugin{
                 .build();
 
         CommandManager.register(testCommand);
+        CommandManager.register(MetricsCommand.create(this));
 
-        Task testTask = Task.builder()
+        DistributedTask.players()
                 .plugin(this)
-                .runnable(() -> Bukkit.getOnlinePlayers().forEach(player -> ScoreboardManager.setSidebar(player, Sidebar.builder()
+                .action(player -> ScoreboardManager.setSidebar(player, Sidebar.builder()
+                                .plugin(this)
                                 .title(Component.text("KPACUBbIU FRONT", NamedTextColor.AQUA, TextDecoration.BOLD))
                                 .lines(Component.text(System.currentTimeMillis(), NamedTextColor.YELLOW), Component.text("second line", NamedTextColor.GOLD),
-                                        Component.text("third line", NamedTextColor.GREEN)).build())))
+                                        Component.text("third line", NamedTextColor.GREEN)).build()))
                 .period(10)
-                .repeating(true)
                 .delay(20)
-                .build();
-
-        Scheduler.runTask(testTask);
+                .build()
+                .start();
 
 
     }
@@ -6,11 +6,14 @@ import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import ru.sliva.tools.command.tree.CommandNode;
+import ru.sliva.tools.command.tree.CommandTree;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 
 public final class Command {
@@ -25,8 +28,16 @@ public final class Command {
 
     private final BiFunction<CommandSender, String[], Boolean> executor;
     private final BiFunction<CommandSender, String[], List<String>> tabCompleter;
+    private final BiFunction<CommandSender, String[], CompletableFuture<List<String>>> asyncTabCompleter;
+    private final CompletionCache completionCache;
+    private final CommandTree tree;
+    private final boolean async;
 
-    private Command(@NotNull Plugin plugin, @NotNull BiFunction<CommandSender, String[], Boolean> executor, @NotNull BiFunction<CommandSender, String[], List<String>> tabCompleter, @NotNull String name, @NotNull String description, @NotNull String usageMessage, @Nullable String permission, @NotNull List<String> aliases) {
+    private final RateLimiter rateLimiter;
+    private final int maxConcurrent;
+    private final String limitMessage;
+
+    private Command(@NotNull Plugin plugin, @NotNull BiFunction<CommandSender, String[], Boolean> executor, boolean async, @NotNull BiFunction<CommandSender, String[], List<String>> tabCompleter, @Nullable BiFunction<CommandSender, String[], CompletableFuture<List<String>>> asyncTabCompleter, @Nullable CompletionCache completionCache, @Nullable CommandTree tree, @Nullable RateLimiter rateLimiter, int maxConcurrent, @NotNull String limitMessage, @NotNull String name, @NotNull String description, @NotNull String usageMessage, @Nullable String permission, @NotNull List<String> aliases) {
         this.plugin = plugin;
 
         this.name = name;
@@ -36,7 +47,15 @@ public final class Command {
         this.aliases = aliases;
 
         this.executor = executor;
+        this.async = async;
         this.tabCompleter = tabCompleter;
+        this.asyncTabCompleter = asyncTabCompleter;
+        this.completionCache = completionCache;
+        this.tree = tree;
+
+        this.rateLimiter = rateLimiter;
+        this.maxConcurrent = maxConcurrent;
+        this.limitMessage = limitMessage;
     }
 
     @Override
@@ -44,7 +63,7 @@ public final class Command {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Command command = (Command) o;
-        return Objects.equals(plugin, command.plugin) && Objects.equals(name, command.name) && Objects.equals(description, command.description) && Objects.equals(usageMessage, command.usageMessage) && Objects.equals(permission, command.permission) && Objects.equals(aliases, command.aliases) && Objects.equals(executor, command.executor) && Objects.equals(tabCompleter, command.tabCompleter);
+        return Objects.equals(plugin, command.plugin) && Objects.equals(name, command.name) && Objects.equals(description, command.description) && Objects.equals(usageMessage, command.usageMessage) && Objects.equals(permission, command.permission) && Objects.equals(aliases, command.aliases) && async == command.async && maxConcurrent == command.maxConcurrent && Objects.equals(limitMessage, command.limitMessage) && Objects.equals(executor, command.executor) && Objects.equals(tabCompleter, command.tabCompleter) && Objects.equals(asyncTabCompleter, command.asyncTabCompleter);
     }
 
     @Override
@@ -57,13 +76,17 @@ public final class Command {
                 ", permission='" + permission + '\'' +
                 ", aliases=" + aliases +
                 ", executor=" + executor +
+                ", async=" + async +
                 ", tabCompleter=" + tabCompleter +
+                ", asyncTabCompleter=" + asyncTabCompleter +
+                ", maxConcurrent=" + maxConcurrent +
+                ", limitMessage='" + limitMessage + '\'' +
                 '}';
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(plugin, name, description, usageMessage, permission, aliases, executor, tabCompleter);
+        return Objects.hash(plugin, name, description, usageMessage, permission, aliases, executor, async, tabCompleter, asyncTabCompleter, maxConcurrent, limitMessage);
     }
 
     /**
@@ -129,6 +152,15 @@ public final class Command {
         return executor;
     }
 
+    /**
+     * Returns true if the executor runs off the main thread
+     *
+     * @return Is the command asynchronous.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
     /**
      * Returns the tab completer for this command
      *
@@ -138,6 +170,60 @@ public final class Command {
         return tabCompleter;
     }
 
+    /**
+     * Returns the asynchronous tab completer for this command
+     *
+     * @return A function that takes a CommandSender and a String array and returns a future of a List of Strings, or null if the command completes synchronously.
+     */
+    public @Nullable BiFunction<CommandSender, String[], CompletableFuture<List<String>>> getAsyncTabCompleter() {
+        return asyncTabCompleter;
+    }
+
+    /**
+     * Returns the cache of the tab completions
+     *
+     * @return The cache, or null if completions are not cached.
+     */
+    @Nullable CompletionCache getCompletionCache() {
+        return completionCache;
+    }
+
+    /**
+     * Returns the rate limiter of the senders
+     *
+     * @return The rate limiter, or null if the command is not rate limited.
+     */
+    @Nullable RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Returns how many executions of the command can run at the same time
+     *
+     * @return The maximum amount of executions, or 0 if there is no limit.
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Returns the message sent to a rate limited sender
+     *
+     * @return The message, {@code <seconds>} is replaced with the time left.
+     */
+    public @NotNull String getLimitMessage() {
+        return limitMessage;
+    }
+
+    /**
+     * Returns the compiled argument tree of the command
+     *
+     * @return The tree, or null if the command parses the arguments by itself.
+     */
+    public @Nullable CommandTree getTree() {
+        return tree;
+    }
+
     /**
      * Returns a builder for creating a new instance of this class
      *
@@ -157,7 +243,19 @@ public final class Command {
         private List<String> aliases = new ArrayList<>();
 
         private BiFunction<CommandSender, String[], Boolean> executor;
+        private boolean async = false;
         private BiFunction<CommandSender, String[], List<String>> tabCompleter;
+        private BiFunction<CommandSender, String[], CompletableFuture<List<String>>> asyncTabCompleter;
+        private CommandNode tree;
+
+        private long completionCacheTtl;
+        private int completionCacheSize;
+        private boolean completionCachePerSender;
+
+        private int rateLimitPermits;
+        private long rateLimitPeriod;
+        private int maxConcurrent = 0;
+        private String limitMessage = "Please wait <seconds> s before using this command again.";
 
         /**
          * Builds a Command
@@ -168,9 +266,20 @@ public final class Command {
         public @NotNull Command build() {
             Validate.notNull(plugin, "Plugin must be NotNull");
             Validate.notNull(name, "Name must be NotNull");
+            CommandTree commandTree = null;
+            if(tree != null) {
+                commandTree = CommandTree.compile(tree);
+                executor = commandTree::execute;
+                tabCompleter = commandTree::complete;
+            }
             Validate.notNull(executor, "Executor must be NotNull");
-            Validate.notNull(tabCompleter, "TabCompleter must be NotNull");
-            return new Command(plugin, executor, tabCompleter, name, description, usageMessage, permission, aliases);
+            Validate.isTrue(tabCompleter != null || asyncTabCompleter != null, "TabCompleter must be NotNull");
+            if(tabCompleter == null) {
+                tabCompleter = (sender, args) -> List.of();
+            }
+            CompletionCache completionCache = completionCacheTtl > 0 ? new CompletionCache(completionCacheTtl, completionCacheSize, completionCachePerSender) : null;
+            RateLimiter rateLimiter = rateLimitPermits > 0 ? new RateLimiter(rateLimitPermits, rateLimitPeriod) : null;
+            return new Command(plugin, executor, async, tabCompleter, asyncTabCompleter, completionCache, commandTree, rateLimiter, maxConcurrent, limitMessage, name, description, usageMessage, permission, aliases);
         }
 
         /**
@@ -268,6 +377,19 @@ public final class Command {
             return this;
         }
 
+        /**
+         * Sets the async flag of the command. The permission is checked on the main thread, then the executor runs
+         * on virtual threads when they are available or on a bounded worker pool otherwise. The executor should use
+         * {@link ru.sliva.tools.scheduler.Scheduler#runSync(Plugin, Runnable)} to send messages and touch the world.
+         *
+         * @param async If true, the executor will be called asynchronously.
+         * @return Current builder.
+         */
+        public Builder async(boolean async) {
+            this.async = async;
+            return this;
+        }
+
         /**
          * Sets the tabCompleter function that is used to provide a list of possible completions for the command
          *
@@ -279,6 +401,103 @@ public final class Command {
             this.tabCompleter = tabCompleter;
             return this;
         }
+
+        /**
+         * Sets the argument tree of the command. The tree is compiled when the command is built
+         * and replaces the executor and the tabCompleter.
+         *
+         * @param tree The root node of the tree.
+         * @return Current builder.
+         */
+        public Builder tree(@NotNull CommandNode tree) {
+            Validate.notNull(tree, "Tree must be NotNull");
+            this.tree = tree;
+            return this;
+        }
+
+        /**
+         * Sets the asynchronous tabCompleter function. Players are suggested through the command node, the server
+         * awaits the future without blocking and completions that arrive after a newer request of the same sender are discarded.
+         * The console awaits the future up to the tab completion timeout. Synchronous callers of a command
+         * without a tabCompleter only get cached completions.
+         *
+         * @param asyncTabCompleter The asynchronous tabCompleter for the command
+         * @return Current builder.
+         */
+        public Builder asyncTabCompleter(@NotNull BiFunction<CommandSender, String[], CompletableFuture<List<String>>> asyncTabCompleter) {
+            Validate.notNull(asyncTabCompleter, "Async TabCompleter must be NotNull");
+            this.asyncTabCompleter = asyncTabCompleter;
+            return this;
+        }
+
+        /**
+         * Enables caching of the tab completions. Completions are cached by the argument index and the preceding
+         * arguments, a longer prefix of the last argument is served by filtering the completions of a shorter one.
+         *
+         * @param ttl How long the completions are cached, in milliseconds.
+         * @param maximumSize The maximum amount of cached completion lists.
+         * @param perSender If true, completions of different senders are cached separately.
+         * @return Current builder.
+         */
+        public Builder completionCache(long ttl, int maximumSize, boolean perSender) {
+            Validate.isTrue(ttl > 0, "TTL must be positive");
+            Validate.isTrue(maximumSize > 0, "Maximum size must be positive");
+            this.completionCacheTtl = ttl;
+            this.completionCacheSize = maximumSize;
+            this.completionCachePerSender = perSender;
+            return this;
+        }
+
+        /**
+         * Sets the cooldown between uses of the command by the same player
+         *
+         * @param cooldown The cooldown, in milliseconds.
+         * @return Current builder.
+         */
+        public Builder cooldown(long cooldown) {
+            return rateLimit(1, cooldown);
+        }
+
+        /**
+         * Limits how often a player can use the command with a token bucket. The bucket holds the permits,
+         * each use takes one and they are refilled evenly over the period. Senders that are not entities are not limited.
+         *
+         * @param permits The amount of uses in a burst.
+         * @param period The time it takes to refill all the permits, in milliseconds.
+         * @return Current builder.
+         */
+        public Builder rateLimit(int permits, long period) {
+            Validate.isTrue(permits > 0, "Permits must be positive");
+            Validate.isTrue(period > 0, "Period must be positive");
+            this.rateLimitPermits = permits;
+            this.rateLimitPeriod = period;
+            return this;
+        }
+
+        /**
+         * Limits how many executions of the command can run at the same time across all senders,
+         * it is useful for asynchronous commands
+         *
+         * @param maxConcurrent The maximum amount of executions, or 0 if there is no limit.
+         * @return Current builder.
+         */
+        public Builder maxConcurrent(int maxConcurrent) {
+            Validate.isTrue(maxConcurrent >= 0, "Max concurrent must not be negative");
+            this.maxConcurrent = maxConcurrent;
+            return this;
+        }
+
+        /**
+         * Sets the message sent to a rate limited sender
+         *
+         * @param limitMessage The message, {@code <seconds>} is replaced with the time left.
+         * @return Current builder.
+         */
+        public Builder limitMessage(@NotNull String limitMessage) {
+            Validate.notNull(limitMessage, "Limit Message must be NotNull");
+            this.limitMessage = limitMessage;
+            return this;
+        }
     }
 
 
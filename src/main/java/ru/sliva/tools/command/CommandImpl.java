@@ -4,14 +4,26 @@ import org.apache.commons.lang.Validate;
 import org.bukkit.command.CommandException;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.PluginIdentifiableCommand;
+import org.bukkit.entity.Entity;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.sliva.tools.scheduler.AsyncExecutor;
+import ru.sliva.tools.scheduler.Scheduler;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
 
 public final class CommandImpl extends org.bukkit.command.Command implements PluginIdentifiableCommand {
 
     private final Command command;
+    private final CommandMetrics metrics = new CommandMetrics();
+    private final AtomicInteger running = new AtomicInteger();
 
     public CommandImpl(@NotNull Command command) {
         super(command.getName(), command.getDescription(), command.getUsageMessage(), command.getAliases());
@@ -28,6 +40,10 @@ public final class CommandImpl extends org.bukkit.command.Command implements Plu
         return command;
     }
 
+    public @NotNull CommandMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
         boolean success;
@@ -36,23 +52,188 @@ public final class CommandImpl extends org.bukkit.command.Command implements Plu
             throw new CommandException("Cannot execute command '" + commandLabel + "' in plugin " + getPlugin().getDescription().getFullName() + " - plugin is disabled.");
         }
 
-        if (!testPermission(sender)) {
+        if (!testPermission(sender) || !acquire(sender)) {
+            return true;
+        }
+
+        if (command.isAsync()) {
+            try {
+                AsyncExecutor.execute(() -> {
+                    try {
+                        executeAsync(sender, commandLabel, args);
+                    } finally {
+                        release();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                release();
+                throw new CommandException("Cannot execute command '" + commandLabel + "' in plugin " + getPlugin().getDescription().getFullName() + " - worker pool is saturated.", ex);
+            }
             return true;
         }
 
+        long start = System.nanoTime();
         try {
             success = command.getExecutor().apply(sender, args);
         } catch (Throwable ex) {
+            metrics.recordExecution(System.nanoTime() - start, false, true);
             throw new CommandException("Unhandled exception executing command '" + commandLabel + "' in plugin " + getPlugin().getDescription().getFullName(), ex);
+        } finally {
+            release();
+        }
+        metrics.recordExecution(System.nanoTime() - start, success, false);
+
+        if (!success) {
+            sendUsage(sender, commandLabel);
         }
 
-        if (!success && usageMessage.length() > 0) {
+        return success;
+    }
+
+    /**
+     * Calls the executor off the main thread, the usage message is sent from the main thread
+     *
+     * @param sender The sender of the command.
+     * @param commandLabel The label used.
+     * @param args The arguments of the command.
+     */
+    private void executeAsync(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
+        boolean success;
+        long start = System.nanoTime();
+        try {
+            success = command.getExecutor().apply(sender, args);
+        } catch (Throwable ex) {
+            metrics.recordExecution(System.nanoTime() - start, false, true);
+            getPlugin().getLogger().log(Level.SEVERE, "Unhandled exception executing command '" + commandLabel + "' in plugin " + getPlugin().getDescription().getFullName(), ex);
+            return;
+        }
+        metrics.recordExecution(System.nanoTime() - start, success, false);
+
+        if (!success && getPlugin().isEnabled()) {
+            Scheduler.runSync(getPlugin(), () -> sendUsage(sender, commandLabel));
+        }
+    }
+
+    /**
+     * Takes a slot of the concurrency limit and a permit of the rate limit, the sender is notified if it fails
+     *
+     * @param sender The sender of the command.
+     * @return True if the command can be executed.
+     */
+    private boolean acquire(@NotNull CommandSender sender) {
+        int maxConcurrent = command.getMaxConcurrent();
+        if (maxConcurrent > 0 && running.incrementAndGet() > maxConcurrent) {
+            running.decrementAndGet();
+            sender.sendMessage("This command is busy, please try again later.");
+            return false;
+        }
+
+        RateLimiter rateLimiter = command.getRateLimiter();
+        if (rateLimiter != null && sender instanceof Entity entity) {
+            long wait = rateLimiter.acquire(entity.getUniqueId(), System.nanoTime());
+            if (wait > 0) {
+                release();
+                sender.sendMessage(command.getLimitMessage().replace("<seconds>", String.valueOf((wait + 999_999_999L) / 1_000_000_000L)));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void release() {
+        if (command.getMaxConcurrent() > 0) {
+            running.decrementAndGet();
+        }
+    }
+
+    private void sendUsage(@NotNull CommandSender sender, @NotNull String commandLabel) {
+        if (usageMessage.length() > 0) {
             for (String line : usageMessage.replace("<command>", commandLabel).split("\n")) {
                 sender.sendMessage(line);
             }
         }
+    }
 
-        return success;
+    @Override
+    public boolean testPermissionSilent(@NotNull CommandSender target) {
+        String permission = getPermission();
+        if (permission == null || permission.length() == 0) {
+            return true;
+        }
+        return CommandManager.hasPermission(target, permission);
+    }
+
+    /**
+     * Tests the permission of the command without the cache, the fresh result is cached
+     *
+     * @param target The sender to test.
+     * @return True if the sender can use the command.
+     */
+    boolean refreshPermission(@NotNull CommandSender target) {
+        String permission = getPermission();
+        if (permission == null || permission.length() == 0) {
+            return true;
+        }
+        return CommandManager.refreshPermission(target, permission);
+    }
+
+    /**
+     * Returns the cached completions of the command without calling the completer
+     *
+     * @param sender The sender of the completion request.
+     * @param args The arguments that are typed so far.
+     * @return The completions, or null if there is nothing cached.
+     */
+    @Nullable List<String> getCachedCompletions(@NotNull CommandSender sender, @NotNull String[] args) {
+        CompletionCache cache = command.getCompletionCache();
+        return cache == null ? null : cache.get(sender, args);
+    }
+
+    /**
+     * Starts the asynchronous tab completion of the command
+     *
+     * @param sender The sender of the completion request.
+     * @param alias The alias used.
+     * @param args The arguments that are typed so far.
+     * @return The future of the completions, or null if the command completes synchronously.
+     */
+    public @Nullable CompletableFuture<List<String>> tabCompleteAsync(@NotNull CommandSender sender, @NotNull String alias, @NotNull String[] args) {
+        BiFunction<CommandSender, String[], CompletableFuture<List<String>>> completer = command.getAsyncTabCompleter();
+        if (completer == null) {
+            return null;
+        }
+
+        CompletionCache cache = command.getCompletionCache();
+        if (cache != null) {
+            List<String> completions = cache.get(sender, args);
+            if (completions != null) {
+                return CompletableFuture.completedFuture(completions);
+            }
+        }
+
+        CompletableFuture<List<String>> future;
+        long start = System.nanoTime();
+        try {
+            future = completer.apply(sender, args);
+        } catch (Throwable ex) {
+            metrics.recordTabCompletion(System.nanoTime() - start, true);
+            throw new CommandException(tabCompleteError(alias, args), ex);
+        }
+
+        if (future == null) {
+            metrics.recordTabCompletion(System.nanoTime() - start, false);
+        } else {
+            future.whenComplete((completions, ex) -> metrics.recordTabCompletion(System.nanoTime() - start, ex != null && !(ex instanceof CancellationException)));
+        }
+
+        if (cache != null && future != null) {
+            future.thenAccept(completions -> {
+                if (completions != null) {
+                    cache.put(sender, args, completions);
+                }
+            });
+        }
+        return future;
     }
 
     @Override
@@ -61,17 +242,23 @@ public final class CommandImpl extends org.bukkit.command.Command implements Plu
         Validate.notNull(args, "Arguments cannot be null");
         Validate.notNull(alias, "Alias cannot be null");
 
-        List<String> completions;
+        CompletionCache cache = command.getCompletionCache();
+        List<String> completions = cache == null ? null : cache.get(sender, args);
+        if (completions != null) {
+            return completions;
+        }
+
+        long start = System.nanoTime();
         try {
             completions = command.getTabCompleter().apply(sender, args);
         } catch (Throwable ex) {
-            StringBuilder message = new StringBuilder();
-            message.append("Unhandled exception during tab completion for command '/").append(alias).append(' ');
-            for (String arg : args) {
-                message.append(arg).append(' ');
-            }
-            message.deleteCharAt(message.length() - 1).append("' in plugin ").append(getPlugin().getDescription().getFullName());
-            throw new CommandException(message.toString(), ex);
+            metrics.recordTabCompletion(System.nanoTime() - start, true);
+            throw new CommandException(tabCompleteError(alias, args), ex);
+        }
+        metrics.recordTabCompletion(System.nanoTime() - start, false);
+
+        if (cache != null && completions != null && command.getAsyncTabCompleter() == null) {
+            cache.put(sender, args, completions);
         }
 
         if (completions == null) {
@@ -79,4 +266,21 @@ public final class CommandImpl extends org.bukkit.command.Command implements Plu
         }
         return completions;
     }
+
+    /**
+     * Builds the message of an exception thrown during tab completion
+     *
+     * @param alias The alias used.
+     * @param args The arguments that were completed.
+     * @return The message.
+     */
+    @NotNull String tabCompleteError(@NotNull String alias, @NotNull String[] args) {
+        StringBuilder message = new StringBuilder();
+        message.append("Unhandled exception during tab completion for command '/").append(alias).append(' ');
+        for (String arg : args) {
+            message.append(arg).append(' ');
+        }
+        message.deleteCharAt(message.length() - 1).append("' in plugin ").append(getPlugin().getDescription().getFullName());
+        return message.toString();
+    }
 }
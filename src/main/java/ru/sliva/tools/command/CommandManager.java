@@ -1,23 +1,73 @@
 package ru.sliva.tools.command;
 
+import com.destroystokyo.paper.brigadier.BukkitBrigadierCommand;
+import com.destroystokyo.paper.brigadier.BukkitBrigadierCommandSource;
+import com.destroystokyo.paper.event.brigadier.CommandRegisteredEvent;
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.mojang.brigadier.tree.LiteralCommandNode;
+import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
+import org.bukkit.command.CommandException;
+import org.bukkit.command.CommandSender;
 import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.ServerLoadEvent;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.sliva.tools.command.tree.BrigadierTree;
+import ru.sliva.tools.command.tree.CommandTree;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.logging.Level;
 
 public final class CommandManager implements Listener {
 
     private static final SimpleCommandMap commandMap = (SimpleCommandMap) Bukkit.getCommandMap();
     private static final Map<String, org.bukkit.command.Command> knownCommands = commandMap.getKnownCommands();
+    private static final CommandTrie trie = new CommandTrie();
+    private static final Map<Command, CommandImpl> bukkitCommands = new IdentityHashMap<>();
+    private static final Map<Plugin, Set<Command>> pluginCommands = new HashMap<>();
+    private static final Map<CommandSender, CompletableFuture<List<String>>> tabCompletions = new ConcurrentHashMap<>();
+    private static final Set<CommandImpl> brigadierCommands = Collections.newSetFromMap(new IdentityHashMap<>());
+    private static final PermissionCache permissionCache = new PermissionCache();
 
+    private static volatile long tabCompleteTimeout = 500;
+    private static boolean loaded;
+    private static int batchDepth;
+    private static boolean changed;
+
+    public CommandManager() {
+        loaded = Bukkit.getCurrentTick() > 0 || !Bukkit.getOnlinePlayers().isEmpty();
+    }
 
     /**
      * Registers a command
@@ -25,7 +75,79 @@ public final class CommandManager implements Listener {
      * @param command The command that you want to register.
      */
     public static void register(@NotNull Command command) {
-        commandMap.register(command.getPlugin().getName(), new CommandImpl(command));
+        register(command, false);
+    }
+
+    /**
+     * Registers a command, optionally as a Brigadier node built from its argument tree. Clients validate
+     * the syntax and complete the literals of such commands locally, without asking the server.
+     *
+     * @param command The command that you want to register.
+     * @param brigadier If true, the command tree is sent to the clients.
+     */
+    public static void register(@NotNull Command command, boolean brigadier) {
+        Validate.isTrue(!brigadier || command.getTree() != null, "Brigadier command must have an argument tree");
+        CommandImpl bukkitCommand = new CommandImpl(command);
+        commandMap.register(command.getPlugin().getName(), bukkitCommand);
+        for(String label : labels(bukkitCommand)) {
+            if(knownCommands.get(label) == bukkitCommand) {
+                trie.put(label, bukkitCommand);
+            }
+        }
+        bukkitCommands.put(command, bukkitCommand);
+        pluginCommands.computeIfAbsent(command.getPlugin(), plugin -> Collections.newSetFromMap(new IdentityHashMap<>())).add(command);
+        if(brigadier) {
+            brigadierCommands.add(bukkitCommand);
+        }
+        changed();
+    }
+
+    /**
+     * Registers the commands with a single sync of the command tree
+     *
+     * @param commands The commands that you want to register.
+     */
+    public static void registerAll(@NotNull Collection<Command> commands) {
+        registerAll(commands, false);
+    }
+
+    /**
+     * Registers the commands with a single sync of the command tree
+     *
+     * @param commands The commands that you want to register.
+     * @param brigadier If true, the command trees are sent to the clients.
+     */
+    public static void registerAll(@NotNull Collection<Command> commands, boolean brigadier) {
+        Validate.notNull(commands, "Commands must be NotNull");
+        batch(() -> commands.forEach(command -> register(command, brigadier)));
+    }
+
+    /**
+     * Removes the commands with a single sync of the command tree
+     *
+     * @param commands The commands to unregister.
+     */
+    public static void unregisterAll(@NotNull Collection<Command> commands) {
+        Validate.notNull(commands, "Commands must be NotNull");
+        batch(() -> List.copyOf(commands).forEach(CommandManager::unregister));
+    }
+
+    /**
+     * Runs the changes of the commands in a batch. The command tree is synced and resent to the players once,
+     * after the outermost batch is finished. There is no sync before the server is loaded or while it is stopping.
+     *
+     * @param changes The Runnable that registers and unregisters commands.
+     */
+    public static void batch(@NotNull Runnable changes) {
+        Validate.notNull(changes, "Changes must be NotNull");
+        batchDepth++;
+        try {
+            changes.run();
+        } finally {
+            if(--batchDepth == 0) {
+                flush();
+            }
+        }
     }
 
     /**
@@ -34,9 +156,46 @@ public final class CommandManager implements Listener {
      * @param command The command to unregister.
      */
     public static void unregister(@NotNull Command command) {
-        CommandImpl bukkitCommand = getBukkitCommand(command);
-        knownCommands.remove(bukkitCommand.getName(), bukkitCommand);
-        bukkitCommand.getAliases().forEach(s -> knownCommands.remove(s, bukkitCommand));
+        CommandImpl bukkitCommand = bukkitCommands.remove(command);
+        if(bukkitCommand == null) {
+            return;
+        }
+        for(String label : labels(bukkitCommand)) {
+            knownCommands.remove(label, bukkitCommand);
+            trie.remove(label, bukkitCommand);
+        }
+        bukkitCommand.unregister(commandMap);
+        brigadierCommands.remove(bukkitCommand);
+        changed();
+
+        Set<Command> commands = pluginCommands.get(command.getPlugin());
+        if(commands != null) {
+            commands.remove(command);
+            if(commands.isEmpty()) {
+                pluginCommands.remove(command.getPlugin());
+            }
+        }
+    }
+
+    /**
+     * Returns the toolkit command registered with the label
+     *
+     * @param label The name, alias or fallback label of the command.
+     * @return The command, or null if there is no toolkit command with this label.
+     */
+    public static @Nullable Command getCommand(@NotNull String label) {
+        CommandImpl bukkitCommand = trie.get(label);
+        return bukkitCommand == null ? null : bukkitCommand.getCommand();
+    }
+
+    /**
+     * Completes the label of a toolkit command
+     *
+     * @param prefix The beginning of the label.
+     * @return The labels of the toolkit commands that start with the prefix, in alphabetical order.
+     */
+    public static @NotNull List<String> complete(@NotNull String prefix) {
+        return trie.complete(prefix);
     }
 
     /**
@@ -45,8 +204,7 @@ public final class CommandManager implements Listener {
      * @param plugin The plugin that registered the commands.
      */
     private static void unregister(@NotNull Plugin plugin) {
-        List<Command> commands = getCommands(plugin);
-        commands.forEach(CommandManager::unregister);
+        unregisterAll(getCommands(plugin));
     }
 
     /**
@@ -55,18 +213,320 @@ public final class CommandManager implements Listener {
      * @param plugin The plugin that the commands are being registered for.
      * @return A list of commands.
      */
-    private static List<Command> getCommands(@NotNull Plugin plugin) {
-        return commandMap.getCommands().stream().filter(cmd -> cmd instanceof CommandImpl).map(cmd -> ((CommandImpl) cmd).getCommand()).filter(cmd -> Objects.equals(cmd.getPlugin(), plugin)).collect(Collectors.toList());
+    public static @NotNull List<Command> getCommands(@NotNull Plugin plugin) {
+        Set<Command> commands = pluginCommands.get(plugin);
+        return commands == null ? List.of() : List.copyOf(commands);
+    }
+
+    /**
+     * Returns all the registered toolkit commands
+     *
+     * @return A list of commands.
+     */
+    public static @NotNull List<Command> getCommands() {
+        return List.copyOf(bukkitCommands.keySet());
+    }
+
+    /**
+     * Returns the execution and tab completion metrics of the command
+     *
+     * @param command The command.
+     * @return The metrics, or null if the command is not registered.
+     */
+    public static @Nullable CommandMetrics getMetrics(@NotNull Command command) {
+        CommandImpl bukkitCommand = bukkitCommands.get(command);
+        return bukkitCommand == null ? null : bukkitCommand.getMetrics();
     }
 
     /**
      * It returns the registered Bukkit implementation of the given command
      *
      * @param command The command
-     * @return The command implementation that matches.
+     * @return The command implementation, or null if the command is not registered.
+     */
+    static @Nullable CommandImpl getBukkitCommand(@NotNull Command command) {
+        return bukkitCommands.get(command);
+    }
+
+    /**
+     * Tests the permission of a command. Results of online players are cached until the player quits, changes
+     * the world or the command list is resent to them, which permission plugins do when permissions are recalculated.
+     *
+     * @param sender The sender to test.
+     * @param permission The permission, several nodes can be separated by ';'.
+     * @return True if the sender has one of the nodes.
+     */
+    public static boolean hasPermission(@NotNull CommandSender sender, @NotNull String permission) {
+        return permissionCache.test(sender, permission);
+    }
+
+    /**
+     * Tests the permission of a command without the cache and caches the fresh result. The Brigadier nodes
+     * of the commands use it, because Paper builds the command tree before the command list event is called.
+     *
+     * @param sender The sender to test.
+     * @param permission The permission, several nodes can be separated by ';'.
+     * @return True if the sender has one of the nodes.
+     */
+    public static boolean refreshPermission(@NotNull CommandSender sender, @NotNull String permission) {
+        return permissionCache.refresh(sender, permission);
+    }
+
+    /**
+     * Forgets the cached permission results of the player, it should be called when the permissions of the player
+     * are changed without resending the command list
+     *
+     * @param player The player.
+     */
+    public static void invalidatePermissions(@NotNull Player player) {
+        permissionCache.invalidate(player.getUniqueId());
+    }
+
+    /**
+     * Forgets the cached permission results of all players
+     */
+    public static void invalidatePermissions() {
+        permissionCache.invalidateAll();
+    }
+
+    /**
+     * Returns how long an asynchronous tab completion of the console is awaited on the console thread
+     *
+     * @return The timeout, in milliseconds.
+     */
+    public static long getTabCompleteTimeout() {
+        return tabCompleteTimeout;
+    }
+
+    /**
+     * Sets how long an asynchronous tab completion of the console is awaited on the console thread,
+     * slower completions are dropped. Completions of players are never awaited.
+     *
+     * @param tabCompleteTimeout The timeout, in milliseconds.
      */
-    private static CommandImpl getBukkitCommand(@NotNull Command command) {
-        return commandMap.getCommands().stream().filter(cmd -> cmd instanceof CommandImpl).map(cmd -> (CommandImpl) cmd).filter(cmd -> Objects.equals(cmd.getCommand(), command)).findFirst().orElseThrow();
+    public static void setTabCompleteTimeout(long tabCompleteTimeout) {
+        Validate.isTrue(tabCompleteTimeout > 0, "Timeout must be positive");
+        CommandManager.tabCompleteTimeout = tabCompleteTimeout;
+    }
+
+    /**
+     * Marks the command tree to be synced at the end of the batch, a change outside a batch is a batch of its own
+     */
+    private static void changed() {
+        changed = true;
+        if(batchDepth == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Syncs the command tree if it was changed. There is no sync before the server is loaded, those changes
+     * are picked up by the initial sync, or while the server is stopping.
+     */
+    private static void flush() {
+        if(changed) {
+            changed = false;
+            if(loaded && !Bukkit.isStopping()) {
+                syncCommands();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the Brigadier tree of the server and sends it to the players
+     */
+    private static void syncCommands() {
+        try {
+            Bukkit.getServer().getClass().getMethod("syncCommands").invoke(Bukkit.getServer());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot sync commands", ex);
+        }
+    }
+
+    /**
+     * Returns the labels the command is reachable by: the name, the aliases and the fallback labels
+     *
+     * @param command The command implementation.
+     * @return A list of labels.
+     */
+    private static @NotNull List<String> labels(@NotNull CommandImpl command) {
+        String prefix = command.getPlugin().getName().toLowerCase(Locale.ENGLISH) + ":";
+        List<String> labels = new ArrayList<>();
+        String name = command.getName().toLowerCase(Locale.ENGLISH);
+        labels.add(name);
+        labels.add(prefix + name);
+        for(String alias : command.getAliases()) {
+            alias = alias.toLowerCase(Locale.ENGLISH);
+            labels.add(alias);
+            labels.add(prefix + alias);
+        }
+        return labels;
+    }
+
+    /**
+     * Builds the Brigadier node of a command without an exported argument tree. The permission is tested without
+     * the cache, because the tree is built before the command list event is called. The arguments of a command with
+     * an asynchronous tab completer are suggested from the future of the completer, which the server awaits without
+     * blocking. A newer request of the same sender cancels the previous request, which gets no response,
+     * but never the future of the completer itself.
+     *
+     * @param label The label of the command.
+     * @param bukkitCommand The command implementation.
+     * @param command The Bukkit command wrapper, it executes and suggests the input.
+     * @param <S> The type of the command source.
+     * @return The literal node of the command.
+     */
+    private static <S extends BukkitBrigadierCommandSource> @NotNull LiteralCommandNode<S> commandNode(@NotNull String label, @NotNull CommandImpl bukkitCommand, @NotNull BukkitBrigadierCommand<S> command) {
+        RequiredArgumentBuilder<S, String> args = RequiredArgumentBuilder.<S, String>argument("args", StringArgumentType.greedyString()).executes(command);
+        if(bukkitCommand.getCommand().getAsyncTabCompleter() != null) {
+            args.suggests((context, builder) -> suggest(bukkitCommand, label, context.getSource().getBukkitSender(), builder));
+        } else {
+            args.suggests(command);
+        }
+        return LiteralArgumentBuilder.<S>literal(label)
+                .requires(source -> bukkitCommand.refreshPermission(source.getBukkitSender()))
+                .executes(command)
+                .then(args)
+                .build();
+    }
+
+    private static @NotNull CompletableFuture<Suggestions> suggest(@NotNull CommandImpl bukkitCommand, @NotNull String alias, @NotNull CommandSender sender, @NotNull SuggestionsBuilder builder) {
+        String remaining = builder.getRemaining();
+        String[] args = remaining.split(" ", -1);
+        CompletableFuture<List<String>> future;
+        try {
+            future = bukkitCommand.tabCompleteAsync(sender, alias, args);
+        } catch (CommandException ex) {
+            bukkitCommand.getPlugin().getLogger().log(Level.WARNING, ex.getMessage(), ex.getCause());
+            return builder.buildFuture();
+        }
+        if(future == null) {
+            return builder.buildFuture();
+        }
+
+        // The completer may share its future between senders, so only the dependent of this request is cancelled
+        CompletableFuture<List<String>> request = future.thenApply(Function.identity());
+        CompletableFuture<List<String>> previous = tabCompletions.put(sender, request);
+        if(previous != null) {
+            previous.cancel(false);
+        }
+        request.whenComplete((completions, ex) -> {
+            tabCompletions.remove(sender, request);
+            logTabCompleteError(bukkitCommand, alias, args, ex);
+        });
+
+        SuggestionsBuilder offset = builder.createOffset(builder.getStart() + remaining.lastIndexOf(' ') + 1);
+        return request.thenApply(completions -> {
+            if(completions != null) {
+                completions.forEach(offset::suggest);
+            }
+            return offset.build();
+        });
+    }
+
+    private static void logTabCompleteError(@NotNull CommandImpl bukkitCommand, @NotNull String alias, @NotNull String[] args, @Nullable Throwable ex) {
+        Throwable cause = ex instanceof CompletionException || ex instanceof ExecutionException ? ex.getCause() : ex;
+        if(cause != null && !(cause instanceof CancellationException)) {
+            bukkitCommand.getPlugin().getLogger().log(Level.WARNING, bukkitCommand.tabCompleteError(alias, args), cause);
+        }
+    }
+
+    @EventHandler
+    public void onAsyncTabComplete(@NotNull AsyncTabCompleteEvent event) {
+        if(event.isHandled() || !event.isCommand()) {
+            return;
+        }
+        String buffer = event.getBuffer();
+        int space = buffer.indexOf(' ');
+        if(space < 0) {
+            return;
+        }
+        String alias = buffer.substring(buffer.startsWith("/") ? 1 : 0, space);
+        CommandImpl bukkitCommand = trie.get(alias);
+        if(bukkitCommand == null || bukkitCommand.getCommand().getAsyncTabCompleter() == null) {
+            return;
+        }
+
+        CommandSender sender = event.getSender();
+        String[] args = buffer.substring(space + 1).split(" ", -1);
+        if(sender instanceof Player) {
+            // The event runs on the network thread, so only cached completions are served here
+            List<String> completions = bukkitCommand.getCachedCompletions(sender, args);
+            if(completions != null && bukkitCommand.testPermissionSilent(sender)) {
+                event.setCompletions(completions);
+                event.setHandled(true);
+            }
+            return;
+        }
+
+        event.setHandled(true);
+        if(!bukkitCommand.testPermissionSilent(sender)) {
+            event.setCompletions(List.of());
+            return;
+        }
+        CompletableFuture<List<String>> future;
+        try {
+            future = bukkitCommand.tabCompleteAsync(sender, alias, args);
+        } catch (CommandException ex) {
+            bukkitCommand.getPlugin().getLogger().log(Level.WARNING, ex.getMessage(), ex.getCause());
+            event.setCompletions(List.of());
+            return;
+        }
+
+        List<String> completions = null;
+        if(future != null) {
+            try {
+                completions = future.get(tabCompleteTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | CancellationException ex) {
+                logTabCompleteError(bukkitCommand, alias, args, ex);
+            } catch (TimeoutException ignored) {
+            }
+        }
+        event.setCompletions(completions == null ? List.of() : completions);
+    }
+
+    @EventHandler
+    public void onCommandRegistered(@NotNull CommandRegisteredEvent<BukkitBrigadierCommandSource> event) {
+        if(!(event.getCommand() instanceof CommandImpl bukkitCommand)) {
+            return;
+        }
+        CommandTree tree = bukkitCommand.getCommand().getTree();
+        if(tree != null && brigadierCommands.contains(bukkitCommand)) {
+            event.setLiteral(BrigadierTree.build(event.getCommandLabel(), tree, source -> bukkitCommand.refreshPermission(source.getBukkitSender()), event.getBrigadierCommand()));
+        } else {
+            event.setLiteral(commandNode(event.getCommandLabel(), bukkitCommand, event.getBrigadierCommand()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerCommandSend(@NotNull PlayerCommandSendEvent event) {
+        Player player = event.getPlayer();
+        permissionCache.invalidate(player.getUniqueId());
+        event.getCommands().removeIf(label -> {
+            CommandImpl bukkitCommand = trie.get(label);
+            return bukkitCommand != null && !bukkitCommand.testPermissionSilent(player);
+        });
+    }
+
+    @EventHandler
+    public void onPlayerChangedWorld(@NotNull PlayerChangedWorldEvent event) {
+        permissionCache.invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
+        permissionCache.invalidate(event.getPlayer().getUniqueId());
+        CompletableFuture<List<String>> future = tabCompletions.remove(event.getPlayer());
+        if(future != null) {
+            future.cancel(false);
+        }
+    }
+
+    @EventHandler
+    public void onServerLoad(@NotNull ServerLoadEvent event) {
+        loaded = true;
     }
 
     @EventHandler
@@ -0,0 +1,127 @@
+package ru.sliva.tools.command;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class CommandMetrics {
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram executeLatency = new LatencyHistogram();
+
+    private final LongAdder tabCompletions = new LongAdder();
+    private final LongAdder tabCompleteErrors = new LongAdder();
+    private final LatencyHistogram tabCompleteLatency = new LatencyHistogram();
+
+    CommandMetrics() {
+    }
+
+    /**
+     * Records an execution of the command
+     *
+     * @param nanos How long the executor ran, in nanoseconds.
+     * @param success The result of the executor, false if it threw an exception.
+     * @param error True if the executor threw an exception.
+     */
+    void recordExecution(long nanos, boolean success, boolean error) {
+        invocations.increment();
+        if(error) {
+            errors.increment();
+        } else if(!success) {
+            failures.increment();
+        }
+        executeLatency.record(nanos);
+    }
+
+    /**
+     * Records a tab completion of the command
+     *
+     * @param nanos How long the completion took, in nanoseconds.
+     * @param error True if the completer threw an exception.
+     */
+    void recordTabCompletion(long nanos, boolean error) {
+        tabCompletions.increment();
+        if(error) {
+            tabCompleteErrors.increment();
+        }
+        tabCompleteLatency.record(nanos);
+    }
+
+    /**
+     * Returns how many times the command was executed
+     *
+     * @return The amount of invocations.
+     */
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    /**
+     * Returns how many times the executor returned false
+     *
+     * @return The amount of failed invocations.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Returns how many times the executor threw an exception
+     *
+     * @return The amount of errors.
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Returns the latencies of the executor
+     *
+     * @return The histogram.
+     */
+    public @NotNull LatencyHistogram getExecuteLatency() {
+        return executeLatency;
+    }
+
+    /**
+     * Returns how many times the tab completer was called, completions served from the cache are not counted
+     *
+     * @return The amount of completions.
+     */
+    public long getTabCompletions() {
+        return tabCompletions.sum();
+    }
+
+    /**
+     * Returns how many times the tab completer threw an exception
+     *
+     * @return The amount of errors.
+     */
+    public long getTabCompleteErrors() {
+        return tabCompleteErrors.sum();
+    }
+
+    /**
+     * Returns the latencies of the tab completer
+     *
+     * @return The histogram.
+     */
+    public @NotNull LatencyHistogram getTabCompleteLatency() {
+        return tabCompleteLatency;
+    }
+
+    /**
+     * Clears the counters and the histograms
+     */
+    public void reset() {
+        invocations.reset();
+        failures.reset();
+        errors.reset();
+        executeLatency.reset();
+        tabCompletions.reset();
+        tabCompleteErrors.reset();
+        tabCompleteLatency.reset();
+    }
+}
@@ -0,0 +1,149 @@
+package ru.sliva.tools.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+final class CommandTrie {
+
+    private final Node root = new Node();
+
+    /**
+     * Maps the label to the command
+     *
+     * @param label The name or alias of the command.
+     * @param command The command.
+     */
+    synchronized void put(@NotNull String label, @NotNull CommandImpl command) {
+        String key = label.toLowerCase(Locale.ENGLISH);
+        Node node = root;
+        for(int index = 0; index < key.length(); index++) {
+            node = node.child(key.charAt(index), true);
+        }
+        node.command = command;
+    }
+
+    /**
+     * Removes the label if it is mapped to the command
+     *
+     * @param label The name or alias of the command.
+     * @param command The command.
+     */
+    synchronized void remove(@NotNull String label, @NotNull CommandImpl command) {
+        String key = label.toLowerCase(Locale.ENGLISH);
+        Node[] path = new Node[key.length() + 1];
+        Node node = root;
+        path[0] = node;
+        for(int index = 0; index < key.length(); index++) {
+            node = node.child(key.charAt(index), false);
+            if(node == null) {
+                return;
+            }
+            path[index + 1] = node;
+        }
+        if(node.command != command) {
+            return;
+        }
+        node.command = null;
+        for(int index = key.length(); index > 0 && path[index].isEmpty(); index--) {
+            path[index - 1].removeChild(key.charAt(index - 1));
+        }
+    }
+
+    /**
+     * Returns the command mapped to the label
+     *
+     * @param label The name or alias of the command.
+     * @return The command, or null if there is no such label.
+     */
+    synchronized @Nullable CommandImpl get(@NotNull String label) {
+        Node node = find(label.toLowerCase(Locale.ENGLISH));
+        return node == null ? null : node.command;
+    }
+
+    /**
+     * Returns all the labels that start with the prefix
+     *
+     * @param prefix The prefix of the labels.
+     * @return The labels in alphabetical order.
+     */
+    synchronized @NotNull List<String> complete(@NotNull String prefix) {
+        String key = prefix.toLowerCase(Locale.ENGLISH);
+        Node node = find(key);
+        List<String> labels = new ArrayList<>();
+        if(node != null) {
+            collect(node, new StringBuilder(key), labels);
+        }
+        return labels;
+    }
+
+    private @Nullable Node find(@NotNull String key) {
+        Node node = root;
+        for(int index = 0; index < key.length() && node != null; index++) {
+            node = node.child(key.charAt(index), false);
+        }
+        return node;
+    }
+
+    private static void collect(@NotNull Node node, @NotNull StringBuilder label, @NotNull List<String> labels) {
+        if(node.command != null) {
+            labels.add(label.toString());
+        }
+        for(int index = 0; index < node.size; index++) {
+            label.append(node.keys[index]);
+            collect(node.children[index], label, labels);
+            label.setLength(label.length() - 1);
+        }
+    }
+
+    private static final class Node {
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+
+        private CommandImpl command;
+
+        private @Nullable Node child(char key, boolean create) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if(index >= 0) {
+                return children[index];
+            }
+            if(!create) {
+                return null;
+            }
+            index = -index - 1;
+            if(size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            Node child = new Node();
+            keys[index] = key;
+            children[index] = child;
+            size++;
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, 0, size, key);
+            if(index < 0) {
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            size--;
+            children[size] = null;
+        }
+
+        private boolean isEmpty() {
+            return command == null && size == 0;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.sliva.tools.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+
+final class CompletionCache {
+
+    private final long ttl;
+    private final int maximumSize;
+    private final boolean perSender;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+
+    CompletionCache(long ttl, int maximumSize, boolean perSender) {
+        this.ttl = ttl * 1_000_000L;
+        this.maximumSize = maximumSize;
+        this.perSender = perSender;
+    }
+
+    /**
+     * Returns the cached completions for the arguments. Completions cached for a shorter prefix of
+     * the last argument are narrowed down to the current prefix.
+     *
+     * @param sender The sender of the completion request.
+     * @param args The arguments that are typed so far.
+     * @return The completions, or null if there is nothing cached.
+     */
+    synchronized @Nullable List<String> get(@NotNull CommandSender sender, @NotNull String[] args) {
+        Key key = key(sender, args);
+        Entry entry = entries.get(key);
+        if(entry == null) {
+            return null;
+        }
+        if(entry.expires - System.nanoTime() <= 0) {
+            entries.remove(key);
+            return null;
+        }
+
+        String prefix = prefix(args);
+        if(prefix.equals(entry.prefix)) {
+            return entry.completions;
+        }
+        if(!prefix.startsWith(entry.prefix)) {
+            return null;
+        }
+        List<String> completions = new ArrayList<>();
+        for(String completion : entry.completions) {
+            if(completion.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                completions.add(completion);
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Caches the completions for the arguments
+     *
+     * @param sender The sender of the completion request.
+     * @param args The arguments that were completed.
+     * @param completions The completions.
+     */
+    synchronized void put(@NotNull CommandSender sender, @NotNull String[] args, @NotNull List<String> completions) {
+        long now = System.nanoTime();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while(iterator.hasNext() && (iterator.next().expires - now <= 0 || entries.size() >= maximumSize)) {
+            iterator.remove();
+        }
+
+        Key key = key(sender, args);
+        entries.remove(key);
+        entries.put(key, new Entry(prefix(args), List.copyOf(completions), now + ttl));
+    }
+
+    private @NotNull Key key(@NotNull CommandSender sender, @NotNull String[] args) {
+        Object owner = null;
+        if(perSender) {
+            owner = sender instanceof Entity entity ? entity.getUniqueId() : sender.getName();
+        }
+        int index = Math.max(0, args.length - 1);
+        String preceding = String.join(" ", Arrays.asList(args).subList(0, index)).toLowerCase(Locale.ENGLISH);
+        return new Key(owner, index, preceding);
+    }
+
+    private static @NotNull String prefix(@NotNull String[] args) {
+        return args.length == 0 ? "" : args[args.length - 1].toLowerCase(Locale.ENGLISH);
+    }
+
+    private record Key(@Nullable Object sender, int index, @NotNull String preceding) {
+    }
+
+    private record Entry(@NotNull String prefix, @NotNull List<String> completions, long expires) {
+    }
+}
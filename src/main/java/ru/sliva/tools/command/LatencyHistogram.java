@@ -0,0 +1,136 @@
+package ru.sliva.tools.command;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    LatencyHistogram() {
+    }
+
+    /**
+     * Records a value. Values are kept in logarithmic buckets with 16 linear sub-buckets each,
+     * so the recorded values are precise to about 6%.
+     *
+     * @param nanos The latency, in nanoseconds.
+     */
+    void record(long nanos) {
+        if(nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(index(nanos));
+        count.increment();
+        total.add(nanos);
+        long current;
+        while(nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the amount of recorded values
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values
+     *
+     * @return The total latency, in nanoseconds.
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded values
+     *
+     * @return The mean latency, in nanoseconds.
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getTotal() / count;
+    }
+
+    /**
+     * Returns the largest recorded value
+     *
+     * @return The maximum latency, in nanoseconds.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value below which the percentage of the recorded values falls
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The latency, in nanoseconds.
+     */
+    public long getValueAtPercentile(double percentile) {
+        Validate.isTrue(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100");
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for(int index = 0; index < BUCKETS; index++) {
+            snapshot[index] = counts.get(index);
+            count += snapshot[index];
+        }
+        if(count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for(int index = 0; index < BUCKETS; index++) {
+            seen += snapshot[index];
+            if(seen >= target) {
+                return Math.min(highestValue(index), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears the recorded values
+     */
+    public void reset() {
+        for(int index = 0; index < BUCKETS; index++) {
+            counts.set(index, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    private static int index(long value) {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValue(int index) {
+        if(index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,115 @@
+package ru.sliva.tools.command;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import ru.sliva.tools.command.tree.ArgumentType;
+import ru.sliva.tools.command.tree.Arguments;
+import ru.sliva.tools.command.tree.CommandNode;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+public final class MetricsCommand {
+
+    private static final int TOP = 10;
+
+    private MetricsCommand() {
+    }
+
+    /**
+     * Creates the admin command that shows the metrics of the toolkit commands:
+     * {@code /commandmetrics} lists the commands that took the most time, {@code /commandmetrics <command>}
+     * shows the details of a command and {@code /commandmetrics reset} clears the metrics.
+     *
+     * @param plugin The plugin that is owner of the command.
+     * @return The command.
+     */
+    @Contract("_ -> new")
+    public static @NotNull Command create(@NotNull Plugin plugin) {
+        Validate.notNull(plugin, "Plugin must be NotNull");
+        return Command.builder()
+                .plugin(plugin)
+                .name("commandmetrics")
+                .description("Shows the metrics of the toolkit commands")
+                .usageMessage("/<command> [reset|command]")
+                .permission("toolkit.metrics")
+                .tree(CommandNode.root()
+                        .executes((sender, arguments) -> top(sender))
+                        .then(CommandNode.literal("reset").executes((sender, arguments) -> reset(sender)),
+                                CommandNode.argument("command", new CommandType()).executes((sender, arguments) -> details(sender, arguments.get("command", Command.class)))))
+                .build();
+    }
+
+    private static boolean top(@NotNull CommandSender sender) {
+        List<Command> commands = CommandManager.getCommands().stream()
+                .filter(command -> metrics(command).getInvocations() > 0)
+                .sorted(Comparator.comparingLong((Command command) -> metrics(command).getExecuteLatency().getTotal()).reversed())
+                .limit(TOP)
+                .toList();
+        if(commands.isEmpty()) {
+            sender.sendMessage("No toolkit command has been executed yet.");
+            return true;
+        }
+        sender.sendMessage("Toolkit commands by total execution time:");
+        for(Command command : commands) {
+            CommandMetrics metrics = metrics(command);
+            LatencyHistogram latency = metrics.getExecuteLatency();
+            sender.sendMessage(String.format(Locale.ENGLISH, " /%s: %d calls, %s total, p99 %s, max %s",
+                    command.getName(), metrics.getInvocations(), millis(latency.getTotal()), millis(latency.getValueAtPercentile(99)), millis(latency.getMax())));
+        }
+        return true;
+    }
+
+    private static boolean details(@NotNull CommandSender sender, @NotNull Command command) {
+        CommandMetrics metrics = metrics(command);
+        sender.sendMessage("Metrics of /" + command.getName() + " (" + command.getPlugin().getName() + "):");
+        sender.sendMessage(String.format(Locale.ENGLISH, " Executions: %d, failed %d, errors %d", metrics.getInvocations(), metrics.getFailures(), metrics.getErrors()));
+        sender.sendMessage(" Execution latency: " + latency(metrics.getExecuteLatency()));
+        sender.sendMessage(String.format(Locale.ENGLISH, " Tab completions: %d, errors %d", metrics.getTabCompletions(), metrics.getTabCompleteErrors()));
+        sender.sendMessage(" Tab completion latency: " + latency(metrics.getTabCompleteLatency()));
+        return true;
+    }
+
+    private static boolean reset(@NotNull CommandSender sender) {
+        CommandManager.getCommands().forEach(command -> metrics(command).reset());
+        sender.sendMessage("Command metrics are reset.");
+        return true;
+    }
+
+    private static @NotNull CommandMetrics metrics(@NotNull Command command) {
+        CommandMetrics metrics = CommandManager.getMetrics(command);
+        return metrics == null ? new CommandMetrics() : metrics;
+    }
+
+    private static @NotNull String latency(@NotNull LatencyHistogram histogram) {
+        return String.format(Locale.ENGLISH, "mean %s, p50 %s, p90 %s, p99 %s, max %s",
+                millis((long) histogram.getMean()), millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getMax()));
+    }
+
+    private static @NotNull String millis(long nanos) {
+        return String.format(Locale.ENGLISH, "%.3f ms", nanos / 1_000_000D);
+    }
+
+    private static final class CommandType implements ArgumentType<Command> {
+
+        @Override
+        public boolean parse(@NotNull CommandSender sender, @NotNull String token, @NotNull Arguments arguments, int slot) {
+            Command command = CommandManager.getCommand(token);
+            if(command == null) {
+                return false;
+            }
+            arguments.set(slot, command);
+            return true;
+        }
+
+        @Override
+        public @NotNull List<String> suggest(@NotNull CommandSender sender, @NotNull String prefix) {
+            return CommandManager.complete(prefix);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ru.sliva.tools.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class PermissionCache {
+
+    private final Map<UUID, Map<String, Boolean>> players = new ConcurrentHashMap<>();
+
+    /**
+     * Tests the permission, the results of online players are cached until they are invalidated
+     *
+     * @param sender The sender to test.
+     * @param permission The permission, several nodes can be separated by ';'.
+     * @return True if the sender has one of the nodes.
+     */
+    boolean test(@NotNull CommandSender sender, @NotNull String permission) {
+        if(!(sender instanceof Player player) || !player.isOnline()) {
+            return resolve(sender, permission);
+        }
+        Map<String, Boolean> permissions = players.computeIfAbsent(player.getUniqueId(), uuid -> new ConcurrentHashMap<>());
+        Boolean result = permissions.get(permission);
+        if(result == null) {
+            result = resolve(sender, permission);
+            permissions.put(permission, result);
+        }
+        return result;
+    }
+
+    /**
+     * Tests the permission without the cache, the result replaces the cached one
+     *
+     * @param sender The sender to test.
+     * @param permission The permission, several nodes can be separated by ';'.
+     * @return True if the sender has one of the nodes.
+     */
+    boolean refresh(@NotNull CommandSender sender, @NotNull String permission) {
+        boolean result = resolve(sender, permission);
+        if(sender instanceof Player player && player.isOnline()) {
+            players.computeIfAbsent(player.getUniqueId(), uuid -> new ConcurrentHashMap<>()).put(permission, result);
+        }
+        return result;
+    }
+
+    /**
+     * Forgets the cached results of the player
+     *
+     * @param uuid The UUID of the player.
+     */
+    void invalidate(@NotNull UUID uuid) {
+        players.remove(uuid);
+    }
+
+    /**
+     * Forgets all the cached results
+     */
+    void invalidateAll() {
+        players.clear();
+    }
+
+    private static boolean resolve(@NotNull CommandSender sender, @NotNull String permission) {
+        for(String node : permission.split(";")) {
+            if(sender.hasPermission(node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,131 @@
+package ru.sliva.tools.command;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+final class RateLimiter {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long MIN_SWEEP_INTERVAL = 1_000_000_000L;
+
+    private final long interval;
+    private final long tolerance;
+    private final long sweepInterval;
+
+    private long[] mostBits = new long[MIN_CAPACITY];
+    private long[] leastBits = new long[MIN_CAPACITY];
+    private long[] arrivals = new long[MIN_CAPACITY];
+    private boolean[] used = new boolean[MIN_CAPACITY];
+    private int size;
+    private int operations;
+    private long swept = System.nanoTime();
+
+    /**
+     * Creates a token bucket that holds the permits and refills them evenly over the period
+     *
+     * @param permits The size of the bucket.
+     * @param period The time it takes to refill the bucket, in milliseconds.
+     */
+    RateLimiter(int permits, long period) {
+        this.interval = Math.max(1, period * 1_000_000L / permits);
+        this.tolerance = interval * (permits - 1);
+        this.sweepInterval = Math.max(MIN_SWEEP_INTERVAL, interval * permits);
+    }
+
+    /**
+     * Takes a permit from the bucket of the sender. The buckets are stored as theoretical arrival times
+     * in an open addressing table keyed by the UUID, full buckets are swept out of the table once per refill period.
+     *
+     * @param uuid The UUID of the sender.
+     * @param now The current time, from {@link System#nanoTime()}.
+     * @return 0 if the permit is taken, otherwise the time until the next permit, in nanoseconds.
+     */
+    synchronized long acquire(@NotNull UUID uuid, long now) {
+        if(++operations >= used.length || now - swept > sweepInterval) {
+            rebuild(now);
+        }
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        int index = find(most, least);
+
+        long arrival = used[index] && arrivals[index] - now > 0 ? arrivals[index] : now;
+        long wait = arrival - now - tolerance;
+        if(wait > 0) {
+            return wait;
+        }
+        if(!used[index]) {
+            if((size + 1) * 4 > used.length * 3) {
+                rebuild(now);
+                index = find(most, least);
+            }
+            used[index] = true;
+            mostBits[index] = most;
+            leastBits[index] = least;
+            size++;
+        }
+        arrivals[index] = arrival + interval;
+        return 0;
+    }
+
+    /**
+     * Returns the amount of senders whose buckets are not full
+     *
+     * @return The amount of entries in the table.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private int find(long most, long least) {
+        int mask = used.length - 1;
+        int index = hash(most, least) & mask;
+        while(used[index] && (mostBits[index] != most || leastBits[index] != least)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rebuild(long now) {
+        operations = 0;
+        swept = now;
+        int live = 0;
+        for(int index = 0; index < used.length; index++) {
+            if(used[index] && arrivals[index] - now > 0) {
+                live++;
+            }
+        }
+        int capacity = MIN_CAPACITY;
+        while(capacity < (live + 1) * 2) {
+            capacity <<= 1;
+        }
+
+        long[] oldMostBits = mostBits;
+        long[] oldLeastBits = leastBits;
+        long[] oldArrivals = arrivals;
+        boolean[] oldUsed = used;
+        mostBits = new long[capacity];
+        leastBits = new long[capacity];
+        arrivals = new long[capacity];
+        used = new boolean[capacity];
+        size = 0;
+        for(int index = 0; index < oldUsed.length; index++) {
+            if(oldUsed[index] && oldArrivals[index] - now > 0) {
+                int slot = find(oldMostBits[index], oldLeastBits[index]);
+                used[slot] = true;
+                mostBits[slot] = oldMostBits[index];
+                leastBits[slot] = oldLeastBits[index];
+                arrivals[slot] = oldArrivals[index];
+                size++;
+            }
+        }
+    }
+
+    private static int hash(long most, long least) {
+        long hash = most ^ least;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+}
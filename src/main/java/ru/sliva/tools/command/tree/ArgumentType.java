@@ -0,0 +1,38 @@
+package ru.sliva.tools.command.tree;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+public interface ArgumentType<T> {
+
+    /**
+     * Parses the token and stores the value in the arguments, without throwing on invalid input
+     *
+     * @param sender The sender of the command.
+     * @param token The token to parse, the rest of the input for greedy types.
+     * @param arguments The arguments to store the value in.
+     * @param slot The slot of the argument.
+     * @return True if the token is valid.
+     */
+    boolean parse(@NotNull CommandSender sender, @NotNull String token, @NotNull Arguments arguments, int slot);
+
+    /**
+     * Suggests the values that start with the prefix
+     *
+     * @param sender The sender of the completion request.
+     * @param prefix The typed part of the argument.
+     * @return A list of suggestions.
+     */
+    @NotNull List<String> suggest(@NotNull CommandSender sender, @NotNull String prefix);
+
+    /**
+     * Returns true if the argument consumes the rest of the input
+     *
+     * @return Is the argument greedy.
+     */
+    default boolean isGreedy() {
+        return false;
+    }
+}
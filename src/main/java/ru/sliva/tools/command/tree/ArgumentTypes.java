@@ -0,0 +1,274 @@
+package ru.sliva.tools.command.tree;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public final class ArgumentTypes {
+
+    private ArgumentTypes() {
+    }
+
+    /**
+     * Returns an argument type of integer numbers
+     *
+     * @return The argument type.
+     */
+    @Contract(" -> new")
+    public static @NotNull ArgumentType<Integer> integer() {
+        return integer(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns an argument type of integer numbers in the range
+     *
+     * @param min The minimum value, inclusive.
+     * @param max The maximum value, inclusive.
+     * @return The argument type.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull ArgumentType<Integer> integer(int min, int max) {
+        Validate.isTrue(min <= max, "Minimum must not be greater than maximum");
+        return new IntegerType(min, max);
+    }
+
+    /**
+     * Returns an argument type of decimal numbers
+     *
+     * @return The argument type.
+     */
+    @Contract(" -> new")
+    public static @NotNull ArgumentType<Double> decimal() {
+        return decimal(-Double.MAX_VALUE, Double.MAX_VALUE);
+    }
+
+    /**
+     * Returns an argument type of decimal numbers in the range
+     *
+     * @param min The minimum value, inclusive.
+     * @param max The maximum value, inclusive.
+     * @return The argument type.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull ArgumentType<Double> decimal(double min, double max) {
+        Validate.isTrue(min <= max, "Minimum must not be greater than maximum");
+        return new DecimalType(min, max);
+    }
+
+    /**
+     * Returns an argument type of online players, matched by the exact name
+     *
+     * @return The argument type.
+     */
+    @Contract(" -> new")
+    public static @NotNull ArgumentType<Player> player() {
+        return new PlayerType();
+    }
+
+    /**
+     * Returns an argument type of the enum constants, matched by the name ignoring case
+     *
+     * @param type The class of the enum.
+     * @param <E> The type of the enum.
+     * @return The argument type.
+     */
+    @Contract("_ -> new")
+    public static <E extends Enum<E>> @NotNull ArgumentType<E> enumeration(@NotNull Class<E> type) {
+        Validate.notNull(type, "Type must be NotNull");
+        return new EnumType<>(type);
+    }
+
+    /**
+     * Returns an argument type of a single word
+     *
+     * @return The argument type.
+     */
+    @Contract(" -> new")
+    public static @NotNull ArgumentType<String> word() {
+        return new StringType(false);
+    }
+
+    /**
+     * Returns an argument type that takes the rest of the input
+     *
+     * @return The argument type.
+     */
+    @Contract(" -> new")
+    public static @NotNull ArgumentType<String> greedyString() {
+        return new StringType(true);
+    }
+
+    record IntegerType(int min, int max) implements ArgumentType<Integer> {
+
+        @Override
+        public boolean parse(@NotNull CommandSender sender, @NotNull String token, @NotNull Arguments arguments, int slot) {
+            int length = token.length();
+            int index = 0;
+            boolean negative = false;
+            if(length > 0 && token.charAt(0) == '-') {
+                negative = true;
+                index++;
+            }
+            if(index == length) {
+                return false;
+            }
+            long value = 0;
+            for(; index < length; index++) {
+                int digit = token.charAt(index) - '0';
+                if(digit < 0 || digit > 9) {
+                    return false;
+                }
+                value = value * 10 + digit;
+                if(value > Integer.MAX_VALUE + 1L) {
+                    return false;
+                }
+            }
+            if(negative) {
+                value = -value;
+            }
+            if(value < min || value > max) {
+                return false;
+            }
+            arguments.setLong(slot, value);
+            return true;
+        }
+
+        @Override
+        public @NotNull List<String> suggest(@NotNull CommandSender sender, @NotNull String prefix) {
+            return List.of();
+        }
+    }
+
+    record DecimalType(double min, double max) implements ArgumentType<Double> {
+
+        @Override
+        public boolean parse(@NotNull CommandSender sender, @NotNull String token, @NotNull Arguments arguments, int slot) {
+            int length = token.length();
+            int index = 0;
+            if(length > 0 && token.charAt(0) == '-') {
+                index++;
+            }
+            boolean digits = false;
+            boolean point = false;
+            for(; index < length; index++) {
+                char c = token.charAt(index);
+                if(c == '.' && !point) {
+                    point = true;
+                } else if(c >= '0' && c <= '9') {
+                    digits = true;
+                } else {
+                    return false;
+                }
+            }
+            if(!digits) {
+                return false;
+            }
+            double value = Double.parseDouble(token);
+            if(value < min || value > max) {
+                return false;
+            }
+            arguments.setDouble(slot, value);
+            return true;
+        }
+
+        @Override
+        public @NotNull List<String> suggest(@NotNull CommandSender sender, @NotNull String prefix) {
+            return List.of();
+        }
+    }
+
+    static final class PlayerType implements ArgumentType<Player> {
+
+        @Override
+        public boolean parse(@NotNull CommandSender sender, @NotNull String token, @NotNull Arguments arguments, int slot) {
+            Player player = Bukkit.getPlayerExact(token);
+            if(player == null || sender instanceof Player viewer && !viewer.canSee(player)) {
+                return false;
+            }
+            arguments.set(slot, player);
+            return true;
+        }
+
+        @Override
+        public @NotNull List<String> suggest(@NotNull CommandSender sender, @NotNull String prefix) {
+            List<String> names = new ArrayList<>();
+            for(Player player : Bukkit.getOnlinePlayers()) {
+                if(sender instanceof Player viewer && !viewer.canSee(player)) {
+                    continue;
+                }
+                String name = player.getName();
+                if(name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    names.add(name);
+                }
+            }
+            return names;
+        }
+    }
+
+    static final class EnumType<E extends Enum<E>> implements ArgumentType<E> {
+
+        private final Map<String, E> constants = new HashMap<>();
+        private final String[] names;
+
+        private EnumType(@NotNull Class<E> type) {
+            E[] values = type.getEnumConstants();
+            names = new String[values.length];
+            for(int index = 0; index < values.length; index++) {
+                names[index] = values[index].name().toLowerCase(Locale.ENGLISH);
+                constants.put(names[index], values[index]);
+            }
+        }
+
+        @Override
+        public boolean parse(@NotNull CommandSender sender, @NotNull String token, @NotNull Arguments arguments, int slot) {
+            E constant = constants.get(token.toLowerCase(Locale.ENGLISH));
+            if(constant == null) {
+                return false;
+            }
+            arguments.set(slot, constant);
+            return true;
+        }
+
+        @Override
+        public @NotNull List<String> suggest(@NotNull CommandSender sender, @NotNull String prefix) {
+            List<String> suggestions = new ArrayList<>();
+            for(String name : names) {
+                if(name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    suggestions.add(name);
+                }
+            }
+            return suggestions;
+        }
+    }
+
+    record StringType(boolean greedy) implements ArgumentType<String> {
+
+        @Override
+        public boolean parse(@NotNull CommandSender sender, @NotNull String token, @NotNull Arguments arguments, int slot) {
+            if(token.isEmpty()) {
+                return false;
+            }
+            arguments.set(slot, token);
+            return true;
+        }
+
+        @Override
+        public @NotNull List<String> suggest(@NotNull CommandSender sender, @NotNull String prefix) {
+            return List.of();
+        }
+
+        @Override
+        public boolean isGreedy() {
+            return greedy;
+        }
+    }
+}
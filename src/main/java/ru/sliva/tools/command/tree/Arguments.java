@@ -0,0 +1,186 @@
+package ru.sliva.tools.command.tree;
+
+import org.apache.commons.lang.Validate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public final class Arguments {
+
+    private final Map<String, Integer> slots;
+    private final int size;
+    private final long[] values;
+    private Object[] objects;
+    private int greedyStart = -1;
+    private boolean busy;
+
+    Arguments(@NotNull Map<String, Integer> slots) {
+        this.slots = slots;
+        this.size = slots.size();
+        this.values = new long[size + (size + 63 >>> 6)];
+    }
+
+    /**
+     * Returns true if the argument was given
+     *
+     * @param name The name of the argument.
+     * @return Is the argument present.
+     */
+    public boolean has(@NotNull String name) {
+        Integer slot = slots.get(name);
+        return slot != null && (values[size + (slot >>> 6)] & 1L << slot) != 0;
+    }
+
+    /**
+     * Returns the value of an integer argument
+     *
+     * @param name The name of the argument.
+     * @return The value.
+     */
+    public int getInt(@NotNull String name) {
+        return (int) values[slot(name)];
+    }
+
+    /**
+     * Returns the value of an integer argument
+     *
+     * @param name The name of the argument.
+     * @return The value.
+     */
+    public long getLong(@NotNull String name) {
+        return values[slot(name)];
+    }
+
+    /**
+     * Returns the value of a decimal argument
+     *
+     * @param name The name of the argument.
+     * @return The value.
+     */
+    public double getDouble(@NotNull String name) {
+        return Double.longBitsToDouble(values[slot(name)]);
+    }
+
+    /**
+     * Returns the value of an argument
+     *
+     * @param name The name of the argument.
+     * @param type The type of the value.
+     * @param <T> The type of the value.
+     * @return The value.
+     */
+    public <T> T get(@NotNull String name, @NotNull Class<T> type) {
+        int slot = slot(name);
+        return type.cast(objects == null ? null : objects[slot]);
+    }
+
+    /**
+     * Returns the value of a string argument
+     *
+     * @param name The name of the argument.
+     * @return The value.
+     */
+    public @Nullable String getString(@NotNull String name) {
+        return get(name, String.class);
+    }
+
+    /**
+     * Stores a primitive value, used by argument types
+     *
+     * @param slot The slot of the argument.
+     * @param value The value.
+     */
+    public void setLong(int slot, long value) {
+        values[slot] = value;
+        values[size + (slot >>> 6)] |= 1L << slot;
+    }
+
+    /**
+     * Stores a primitive value, used by argument types
+     *
+     * @param slot The slot of the argument.
+     * @param value The value.
+     */
+    public void setDouble(int slot, double value) {
+        setLong(slot, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Stores a value, used by argument types
+     *
+     * @param slot The slot of the argument.
+     * @param value The value.
+     */
+    public void set(int slot, @Nullable Object value) {
+        if(objects == null) {
+            objects = new Object[size];
+        }
+        objects[slot] = value;
+        values[size + (slot >>> 6)] |= 1L << slot;
+    }
+
+    /**
+     * Forgets the value of the argument, used when the parsing backtracks
+     *
+     * @param slot The slot of the argument.
+     */
+    void clear(int slot) {
+        values[size + (slot >>> 6)] &= ~(1L << slot);
+        if(objects != null) {
+            objects[slot] = null;
+        }
+    }
+
+    /**
+     * Forgets the values of all the arguments
+     */
+    void clear() {
+        Arrays.fill(values, 0);
+        if(objects != null) {
+            Arrays.fill(objects, null);
+        }
+        greedyStart = -1;
+    }
+
+    /**
+     * Takes the arguments for a single parse, they are reused by the next parse on the same thread
+     *
+     * @return False if the arguments are already taken by an outer parse.
+     */
+    boolean acquire() {
+        if(busy) {
+            return false;
+        }
+        busy = true;
+        return true;
+    }
+
+    /**
+     * Forgets the values and returns the arguments for the next parse
+     */
+    void release() {
+        clear();
+        busy = false;
+    }
+
+    /**
+     * Returns the index of the argument a greedy argument that is being completed starts at
+     *
+     * @return The index, or -1 if the completion doesn't end inside a greedy argument.
+     */
+    int getGreedyStart() {
+        return greedyStart;
+    }
+
+    void setGreedyStart(int greedyStart) {
+        this.greedyStart = greedyStart;
+    }
+
+    private int slot(@NotNull String name) {
+        Integer slot = slots.get(name);
+        Validate.isTrue(slot != null, "Unknown argument " + name);
+        return slot;
+    }
+}
@@ -0,0 +1,96 @@
+package ru.sliva.tools.command.tree;
+
+import com.destroystokyo.paper.brigadier.BukkitBrigadierCommand;
+import com.destroystokyo.paper.brigadier.BukkitBrigadierCommandSource;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.tree.LiteralCommandNode;
+import org.apache.commons.lang.Validate;
+import org.jetbrains.annotations.NotNull;
+import ru.sliva.tools.command.CommandManager;
+
+import java.util.function.Predicate;
+
+public final class BrigadierTree {
+
+    private BrigadierTree() {
+    }
+
+    /**
+     * Builds the Brigadier node of the command from the argument tree. The nodes only validate and suggest the input,
+     * it is dispatched and parsed by the Bukkit command. Words and custom types are sent as Brigadier words,
+     * or as greedy strings if the type is greedy, and are suggested by the server.
+     *
+     * @param label The label of the command.
+     * @param tree The argument tree of the command.
+     * @param requirement The permission check of the command.
+     * @param command The Bukkit command wrapper, it executes and suggests the input.
+     * @param <S> The type of the command source.
+     * @return The literal node of the command.
+     */
+    public static <S extends BukkitBrigadierCommandSource> @NotNull LiteralCommandNode<S> build(@NotNull String label, @NotNull CommandTree tree, @NotNull Predicate<S> requirement, @NotNull BukkitBrigadierCommand<S> command) {
+        Validate.notNull(label, "Label must be NotNull");
+        Validate.notNull(tree, "Tree must be NotNull");
+        Validate.notNull(requirement, "Requirement must be NotNull");
+        Validate.notNull(command, "Command must be NotNull");
+
+        CommandNode root = tree.getRoot();
+        LiteralArgumentBuilder<S> literal = LiteralArgumentBuilder.<S>literal(label).requires(requirement);
+        if(root.getExecutor() != null) {
+            literal.executes(command);
+        }
+        children(literal, root, command);
+        return literal.build();
+    }
+
+    private static <S extends BukkitBrigadierCommandSource> void children(@NotNull ArgumentBuilder<S, ?> builder, @NotNull CommandNode node, @NotNull BukkitBrigadierCommand<S> command) {
+        for(CommandNode child : node.getChildren()) {
+            builder.then(node(child, command));
+        }
+    }
+
+    private static <S extends BukkitBrigadierCommandSource> @NotNull ArgumentBuilder<S, ?> node(@NotNull CommandNode node, @NotNull BukkitBrigadierCommand<S> command) {
+        Predicate<S> requirement = source -> node.getPermission() == null || CommandManager.refreshPermission(source.getBukkitSender(), node.getPermission());
+        ArgumentType<?> type = node.getType();
+        if(type == null) {
+            LiteralArgumentBuilder<S> literal = LiteralArgumentBuilder.<S>literal(node.getName()).requires(requirement);
+            if(node.getExecutor() != null) {
+                literal.executes(command);
+            }
+            children(literal, node, command);
+            return literal;
+        }
+
+        RequiredArgumentBuilder<S, ?> required = RequiredArgumentBuilder.<S, Object>argument(node.getName(), cast(argument(type))).requires(requirement);
+        if(!(type instanceof ArgumentTypes.IntegerType) && !(type instanceof ArgumentTypes.DecimalType)) {
+            required.suggests(command);
+        }
+        if(node.getExecutor() != null) {
+            required.executes(command);
+        }
+        children(required, node, command);
+        return required;
+    }
+
+    private static @NotNull com.mojang.brigadier.arguments.ArgumentType<?> argument(@NotNull ArgumentType<?> type) {
+        if(type instanceof ArgumentTypes.IntegerType integer) {
+            return IntegerArgumentType.integer(integer.min(), integer.max());
+        }
+        if(type instanceof ArgumentTypes.DecimalType decimal) {
+            return DoubleArgumentType.doubleArg(decimal.min(), decimal.max());
+        }
+        if(type.isGreedy()) {
+            return StringArgumentType.greedyString();
+        }
+        return StringArgumentType.word();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @NotNull com.mojang.brigadier.arguments.ArgumentType<Object> cast(@NotNull com.mojang.brigadier.arguments.ArgumentType<?> argument) {
+        return (com.mojang.brigadier.arguments.ArgumentType<Object>) argument;
+    }
+}
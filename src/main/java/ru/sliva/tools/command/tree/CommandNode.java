@@ -0,0 +1,154 @@
+package ru.sliva.tools.command.tree;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+
+public final class CommandNode {
+
+    private final String name;
+    private final ArgumentType<?> type;
+    private final List<CommandNode> children = new ArrayList<>();
+
+    private BiFunction<CommandSender, Arguments, Boolean> executor;
+    private String permission;
+
+    private CommandNode(@NotNull String name, @Nullable ArgumentType<?> type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * Creates the root node, it stands for the command itself
+     *
+     * @return The node.
+     */
+    @Contract(" -> new")
+    public static @NotNull CommandNode root() {
+        return new CommandNode("", null);
+    }
+
+    /**
+     * Creates a node that matches a fixed word, like a subcommand
+     *
+     * @param name The word, matched ignoring case.
+     * @return The node.
+     */
+    @Contract("_ -> new")
+    public static @NotNull CommandNode literal(@NotNull String name) {
+        Validate.notNull(name, "Name must be NotNull");
+        Validate.isTrue(!name.isEmpty() && name.indexOf(' ') < 0, "Name must be a single word");
+        return new CommandNode(name, null);
+    }
+
+    /**
+     * Creates a node that parses an argument
+     *
+     * @param name The name the value is available by in {@link Arguments}.
+     * @param type The type of the argument.
+     * @return The node.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull CommandNode argument(@NotNull String name, @NotNull ArgumentType<?> type) {
+        Validate.notNull(name, "Name must be NotNull");
+        Validate.notNull(type, "Type must be NotNull");
+        return new CommandNode(name, type);
+    }
+
+    /**
+     * Adds the child nodes, literals are matched before arguments and arguments are tried in the order they are added
+     *
+     * @param children The child nodes.
+     * @return Current node.
+     */
+    public CommandNode then(@NotNull CommandNode... children) {
+        Validate.noNullElements(children, "Children must be NotNull");
+        Validate.isTrue(type == null || !type.isGreedy(), "Greedy argument can't have children");
+        Collections.addAll(this.children, children);
+        return this;
+    }
+
+    /**
+     * Sets the executor that is called when the input ends at this node
+     *
+     * @param executor The executor that takes the sender and the parsed arguments and returns a boolean.
+     * @return Current node.
+     */
+    public CommandNode executes(@NotNull BiFunction<CommandSender, Arguments, Boolean> executor) {
+        Validate.notNull(executor, "Executor must be NotNull");
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Sets the permission needed to reach this node
+     *
+     * @param permission The permission.
+     * @return Current node.
+     */
+    public CommandNode permission(@Nullable String permission) {
+        this.permission = permission;
+        return this;
+    }
+
+    /**
+     * Returns the word of a literal node or the name of an argument node
+     *
+     * @return The name.
+     */
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the type of the argument
+     *
+     * @return The type, or null if the node is a literal.
+     */
+    public @Nullable ArgumentType<?> getType() {
+        return type;
+    }
+
+    /**
+     * Returns true if the node matches a fixed word
+     *
+     * @return Is the node a literal.
+     */
+    public boolean isLiteral() {
+        return type == null;
+    }
+
+    /**
+     * Returns the child nodes
+     *
+     * @return An unmodifiable list of nodes.
+     */
+    public @NotNull List<CommandNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Returns the executor of the node
+     *
+     * @return The executor, or null if the input can't end at this node.
+     */
+    public @Nullable BiFunction<CommandSender, Arguments, Boolean> getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the permission needed to reach this node
+     *
+     * @return The permission, or null if the node is available to everyone.
+     */
+    public @Nullable String getPermission() {
+        return permission;
+    }
+}
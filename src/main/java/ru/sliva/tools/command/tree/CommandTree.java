@@ -0,0 +1,227 @@
+package ru.sliva.tools.command.tree;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.sliva.tools.command.CommandManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+
+public final class CommandTree {
+
+    private final CommandNode root;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final Node compiled;
+    private final ThreadLocal<Arguments> scratch = ThreadLocal.withInitial(() -> new Arguments(slots));
+
+    private CommandTree(@NotNull CommandNode root) {
+        this.root = root;
+        this.compiled = new Node(root, slots);
+    }
+
+    /**
+     * Compiles the node tree into a dispatch structure. Changes of the nodes after compiling have no effect.
+     *
+     * @param root The root node.
+     * @return The compiled tree.
+     */
+    @Contract("_ -> new")
+    public static @NotNull CommandTree compile(@NotNull CommandNode root) {
+        Validate.notNull(root, "Root must be NotNull");
+        return new CommandTree(root);
+    }
+
+    /**
+     * Returns the root node the tree was compiled from
+     *
+     * @return The root node.
+     */
+    public @NotNull CommandNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Parses the arguments and calls the executor of the node the input ends at. The arguments passed
+     * to the executor are reused by the next execution on the same thread, so they must not be kept after it returns.
+     *
+     * @param sender The sender of the command.
+     * @param args The arguments of the command.
+     * @return The result of the executor, or false if the input doesn't match the tree.
+     */
+    public boolean execute(@NotNull CommandSender sender, @NotNull String[] args) {
+        Arguments arguments = scratch.get();
+        if(!arguments.acquire()) {
+            arguments = new Arguments(slots);
+        }
+        try {
+            Node node = walk(sender, args, 0, args.length, compiled, arguments, true);
+            if(node == null) {
+                return false;
+            }
+            return Boolean.TRUE.equals(node.executor.apply(sender, arguments));
+        } finally {
+            arguments.release();
+        }
+    }
+
+    /**
+     * Completes the last argument from the literals and the argument types of the node the preceding arguments end at.
+     * If the input ends inside a greedy argument, its type is asked with the whole typed part of the argument.
+     *
+     * @param sender The sender of the completion request.
+     * @param args The arguments that are typed so far.
+     * @return A list of completions.
+     */
+    public @NotNull List<String> complete(@NotNull CommandSender sender, @NotNull String[] args) {
+        if(args.length == 0) {
+            return List.of();
+        }
+        Arguments arguments = scratch.get();
+        if(!arguments.acquire()) {
+            arguments = new Arguments(slots);
+        }
+        Node node;
+        int greedyStart;
+        try {
+            node = walk(sender, args, 0, args.length - 1, compiled, arguments, false);
+            greedyStart = arguments.getGreedyStart();
+        } finally {
+            arguments.release();
+        }
+        if(node == null) {
+            return List.of();
+        }
+
+        List<String> completions = new ArrayList<>();
+        if(greedyStart >= 0) {
+            String text = join(args, greedyStart);
+            int offset = text.lastIndexOf(' ') + 1;
+            for(String suggestion : node.type.suggest(sender, text)) {
+                if(suggestion.regionMatches(true, 0, text, 0, offset)) {
+                    completions.add(suggestion.substring(offset));
+                }
+            }
+            return completions;
+        }
+
+        String prefix = args[args.length - 1];
+        for(Node literal : node.literalNodes) {
+            if(literal.permitted(sender) && literal.name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                completions.add(literal.name);
+            }
+        }
+        for(Node argument : node.arguments) {
+            if(argument.permitted(sender)) {
+                completions.addAll(argument.type.suggest(sender, prefix));
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Follows the tree by the arguments, the children are tried in order and the next one is tried
+     * when a branch doesn't match the rest of the arguments
+     *
+     * @param sender The sender of the command.
+     * @param args The arguments of the command.
+     * @param index The index of the argument to match.
+     * @param length The amount of arguments to follow.
+     * @param node The node the preceding arguments end at.
+     * @param arguments The arguments to store the parsed values in.
+     * @param executable Whether the node the arguments end at must have an executor.
+     * @return The node the arguments end at, or null if they don't match the tree.
+     */
+    private @Nullable Node walk(@NotNull CommandSender sender, @NotNull String[] args, int index, int length, @NotNull Node node, @NotNull Arguments arguments, boolean executable) {
+        if(index == length) {
+            return executable && node.executor == null ? null : node;
+        }
+        String token = args[index];
+        Node literal = node.literals.get(token);
+        if(literal != null && literal.permitted(sender)) {
+            Node result = walk(sender, args, index + 1, length, literal, arguments, executable);
+            if(result != null) {
+                return result;
+            }
+        }
+        for(Node argument : node.arguments) {
+            if(!argument.permitted(sender)) {
+                continue;
+            }
+            if(argument.type.isGreedy()) {
+                if(!executable && index < length) {
+                    arguments.setGreedyStart(index);
+                    return argument;
+                }
+                if(length == args.length && (!executable || argument.executor != null) && argument.type.parse(sender, join(args, index), arguments, argument.slot)) {
+                    return argument;
+                }
+            } else if(argument.type.parse(sender, token, arguments, argument.slot)) {
+                Node result = walk(sender, args, index + 1, length, argument, arguments, executable);
+                if(result != null) {
+                    return result;
+                }
+            }
+            arguments.clear(argument.slot);
+        }
+        return null;
+    }
+
+    private static @NotNull String join(@NotNull String[] args, int from) {
+        if(from == args.length - 1) {
+            return args[from];
+        }
+        StringBuilder builder = new StringBuilder(args[from]);
+        for(int index = from + 1; index < args.length; index++) {
+            builder.append(' ').append(args[index]);
+        }
+        return builder.toString();
+    }
+
+    private static final class Node {
+
+        private final String name;
+        private final ArgumentType<?> type;
+        private final String permission;
+        private final BiFunction<CommandSender, Arguments, Boolean> executor;
+        private final int slot;
+
+        private final Map<String, Node> literals = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Node[] literalNodes;
+        private final Node[] arguments;
+
+        private Node(@NotNull CommandNode source, @NotNull Map<String, Integer> slots) {
+            this.name = source.getName();
+            this.type = source.getType();
+            this.permission = source.getPermission();
+            this.executor = source.getExecutor();
+            this.slot = type == null ? -1 : slots.computeIfAbsent(name, key -> slots.size());
+
+            List<Node> literalNodes = new ArrayList<>();
+            List<Node> arguments = new ArrayList<>();
+            for(CommandNode child : source.getChildren()) {
+                Node node = new Node(child, slots);
+                if(child.isLiteral()) {
+                    Validate.isTrue(literals.put(node.name, node) == null, "Duplicate literal " + node.name);
+                    literalNodes.add(node);
+                } else {
+                    arguments.add(node);
+                }
+            }
+            this.literalNodes = literalNodes.toArray(new Node[0]);
+            Arrays.sort(this.literalNodes, (a, b) -> a.name.compareToIgnoreCase(b.name));
+            this.arguments = arguments.toArray(new Node[0]);
+        }
+
+        private boolean permitted(@NotNull CommandSender sender) {
+            return permission == null || CommandManager.hasPermission(sender, permission);
+        }
+    }
+}
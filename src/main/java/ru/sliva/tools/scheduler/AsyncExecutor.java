@@ -0,0 +1,87 @@
+package ru.sliva.tools.scheduler;
+
+import org.apache.commons.lang.Validate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public final class AsyncExecutor {
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private static final boolean virtual;
+    private static final ExecutorService executor;
+
+    static {
+        ExecutorService virtualExecutor = null;
+        try {
+            virtualExecutor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ignored) {
+        }
+        virtual = virtualExecutor != null;
+        executor = virtual ? virtualExecutor : createPool();
+    }
+
+    private AsyncExecutor() {
+    }
+
+    /**
+     * Runs the runnable off the main thread
+     *
+     * @param runnable The Runnable that you want to run.
+     * @throws java.util.concurrent.RejectedExecutionException If the worker pool is saturated.
+     */
+    public static void execute(@NotNull Runnable runnable) {
+        Validate.notNull(runnable, "Runnable must be NotNull");
+        executor.execute(runnable);
+    }
+
+    /**
+     * Computes the value off the main thread
+     *
+     * @param supplier The supplier of the value.
+     * @param <T> The type of the value.
+     * @return The future of the value.
+     */
+    public static <T> @NotNull CompletableFuture<T> supply(@NotNull Supplier<T> supplier) {
+        Validate.notNull(supplier, "Supplier must be NotNull");
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    /**
+     * Returns the executor the asynchronous work runs on
+     *
+     * @return The executor.
+     */
+    public static @NotNull ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns true if the work runs on virtual threads, otherwise it runs on a bounded pool of platform threads
+     *
+     * @return Are virtual threads used.
+     */
+    public static boolean isVirtual() {
+        return virtual;
+    }
+
+    private static @NotNull ExecutorService createPool() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "BukkitToolKit Worker #" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
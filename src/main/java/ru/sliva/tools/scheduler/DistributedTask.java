@@ -0,0 +1,352 @@
+package ru.sliva.tools.scheduler;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+public final class DistributedTask<T> {
+
+    private final Plugin plugin;
+    private final Consumer<? super T> action;
+    private final int period;
+    private final int delay;
+    private final boolean players;
+
+    private final List<Set<T>> slots;
+    private final Map<T, Integer> assigned = new HashMap<>();
+
+    private int current;
+    private boolean unbalanced;
+    private TaskHandle handle;
+    private Listener listener;
+
+    private DistributedTask(@NotNull Plugin plugin, @NotNull Consumer<? super T> action, int period, int delay, boolean players) {
+        this.plugin = plugin;
+        this.action = action;
+        this.period = period;
+        this.delay = delay;
+        this.players = players;
+        this.slots = new ArrayList<>(period);
+        for(int i = 0; i < period; i++) {
+            slots.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Starts the task, a task for players adds the online players and follows the joins and quits
+     *
+     * @return Current task.
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull DistributedTask<T> start() {
+        Validate.isTrue(handle == null || handle.isDone(), "Task is already running");
+        if(players) {
+            assigned.clear();
+            slots.forEach(Set::clear);
+            unbalanced = false;
+            listener = new PlayerListener((DistributedTask<Player>) this);
+            Bukkit.getPluginManager().registerEvents(listener, plugin);
+            Bukkit.getOnlinePlayers().forEach(player -> add((T) player));
+        }
+        handle = Scheduler.runTask(Task.builder()
+                .plugin(plugin)
+                .runnable(this::tick)
+                .repeating(true)
+                .period(1)
+                .delay(delay)
+                .build());
+        handle.getCompletion().whenComplete((result, ex) -> stopListening());
+        return this;
+    }
+
+    /**
+     * Cancels the task
+     */
+    public void cancel() {
+        if(handle != null) {
+            handle.cancel();
+        }
+        stopListening();
+    }
+
+    /**
+     * Adds the element to the least loaded slot
+     *
+     * @param element The element.
+     * @return True if the element was not added before.
+     */
+    public boolean add(@NotNull T element) {
+        Validate.notNull(element, "Element must be NotNull");
+        if(assigned.containsKey(element)) {
+            return false;
+        }
+        int slot = 0;
+        for(int i = 1; i < period; i++) {
+            if(slots.get(i).size() < slots.get(slot).size()) {
+                slot = i;
+            }
+        }
+        slots.get(slot).add(element);
+        assigned.put(element, slot);
+        return true;
+    }
+
+    /**
+     * Removes the element. If the slots got unbalanced, an element of the most loaded slot on the same side
+     * of the tick cursor is moved to its slot, so that the moved element still runs once in the current period.
+     * Otherwise the slots are balanced when the cursor wraps.
+     *
+     * @param element The element.
+     * @return True if the element was added before.
+     */
+    public boolean remove(@NotNull T element) {
+        Integer slot = assigned.remove(element);
+        if(slot == null) {
+            return false;
+        }
+        Set<T> freed = slots.get(slot);
+        freed.remove(element);
+        int largest = slot;
+        boolean balanced = true;
+        for(int i = 0; i < period; i++) {
+            int size = slots.get(i).size();
+            if(size > freed.size() + 1) {
+                balanced = false;
+                if((i < current) == (slot < current) && size > slots.get(largest).size()) {
+                    largest = i;
+                }
+            }
+        }
+        if(largest != slot) {
+            move(largest, slot);
+        } else if(!balanced) {
+            unbalanced = true;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the amount of elements
+     *
+     * @return The size of the task.
+     */
+    public int size() {
+        return assigned.size();
+    }
+
+    /**
+     * Returns the plugin that owns this task
+     *
+     * @return The plugin.
+     */
+    public @NotNull Plugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Returns how many ticks it takes to run the action for every element
+     *
+     * @return The period.
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns the handle of the underlying repeating task
+     *
+     * @return The handle, or null if the task is not started.
+     */
+    public @Nullable TaskHandle getHandle() {
+        return handle;
+    }
+
+    private void move(int from, int to) {
+        Set<T> source = slots.get(from);
+        T moved = source.iterator().next();
+        source.remove(moved);
+        slots.get(to).add(moved);
+        assigned.put(moved, to);
+    }
+
+    /**
+     * Moves elements from the most loaded slots to the least loaded ones, it is only safe
+     * at the start of a period when none of the slots have run yet
+     */
+    private void balance() {
+        while(true) {
+            int smallest = 0;
+            int largest = 0;
+            for(int i = 1; i < period; i++) {
+                int size = slots.get(i).size();
+                if(size < slots.get(smallest).size()) {
+                    smallest = i;
+                }
+                if(size > slots.get(largest).size()) {
+                    largest = i;
+                }
+            }
+            if(slots.get(largest).size() <= slots.get(smallest).size() + 1) {
+                return;
+            }
+            move(largest, smallest);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void tick() {
+        if(current == 0 && unbalanced) {
+            unbalanced = false;
+            balance();
+        }
+        Set<T> slot = slots.get(current);
+        current = (current + 1) % period;
+        if(slot.isEmpty()) {
+            return;
+        }
+        for(Object element : slot.toArray()) {
+            try {
+                action.accept((T) element);
+            } catch (Throwable ex) {
+                plugin.getLogger().log(Level.WARNING, "Distributed task of " + plugin.getDescription().getFullName() + " generated an exception", ex);
+            }
+        }
+    }
+
+    private void stopListening() {
+        if(listener != null) {
+            HandlerList.unregisterAll(listener);
+            listener = null;
+        }
+    }
+
+    /**
+     * Returns a builder for creating a new instance of distributed task. The task runs the action for every element
+     * once per period, but spreads the elements over the ticks of the period so that each tick handles roughly
+     * 1/period of them instead of all of them at once. The task runs on the main thread and its elements
+     * must be added and removed from the main thread only.
+     *
+     * @param <T> The type of the elements.
+     * @return The Builder.
+     */
+    @Contract(value = " -> new", pure = true)
+    public static <T> @NotNull Builder<T> builder() {
+        return new Builder<>(false);
+    }
+
+    /**
+     * Returns a builder for creating a new instance of distributed task over the online players,
+     * the players are added when they join and removed when they quit
+     *
+     * @return The Builder.
+     */
+    @Contract(value = " -> new", pure = true)
+    public static @NotNull Builder<Player> players() {
+        return new Builder<>(true);
+    }
+
+    public static final class Builder<T> {
+        private final boolean players;
+
+        private Plugin plugin;
+        private Consumer<? super T> action;
+        private int period = 1;
+        private int delay = 0;
+
+        private Builder(boolean players) {
+            this.players = players;
+        }
+
+        /**
+         * Build the DistributedTask
+         *
+         * @return A DistributedTask.
+         */
+        @Contract(" -> new")
+        public @NotNull DistributedTask<T> build() {
+            Validate.notNull(plugin, "Plugin must be NotNull");
+            Validate.notNull(action, "Action must be NotNull");
+            return new DistributedTask<>(plugin, action, period, delay, players);
+        }
+
+        /**
+         * Sets the owner of the task
+         *
+         * @param plugin The plugin that is owner of the task
+         * @return Current builder.
+         */
+        public Builder<T> plugin(@NotNull Plugin plugin) {
+            Validate.notNull(plugin, "Plugin must be NotNull");
+            this.plugin = plugin;
+            return this;
+        }
+
+        /**
+         * Sets the action that is run for each element once per period
+         *
+         * @param action The action.
+         * @return Current builder.
+         */
+        public Builder<T> action(@NotNull Consumer<? super T> action) {
+            Validate.notNull(action, "Action must be NotNull");
+            this.action = action;
+            return this;
+        }
+
+        /**
+         * Sets how many ticks it takes to run the action for every element
+         *
+         * @param period The period, in ticks.
+         * @return Current builder.
+         */
+        public Builder<T> period(int period) {
+            Validate.isTrue(period > 0, "Period must be positive");
+            this.period = period;
+            return this;
+        }
+
+        /**
+         * Sets the delay before the first tick
+         *
+         * @param delay The delay, in ticks.
+         * @return Current builder.
+         */
+        public Builder<T> delay(int delay) {
+            Validate.isTrue(delay >= 0, "Delay must not be negative");
+            this.delay = delay;
+            return this;
+        }
+    }
+
+    private record PlayerListener(@NotNull DistributedTask<Player> task) implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPlayerJoin(@NotNull PlayerJoinEvent event) {
+            task.add(event.getPlayer());
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
+            task.remove(event.getPlayer());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.sliva.tools.scheduler;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+public final class MainThreadExecutor {
+
+    private static final Queue<Work> queue = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger backlog = new AtomicInteger();
+
+    private static volatile long budget = 5_000_000L;
+    private static volatile TaskHandle drainTask;
+
+    private MainThreadExecutor() {
+    }
+
+    /**
+     * Queues the runnable to be run on the main thread. The queue is drained once per tick within the time budget,
+     * the work that doesn't fit is carried over to the next ticks in the same order.
+     *
+     * @param plugin The plugin that owns the runnable, the runnable is dropped if the plugin is disabled.
+     * @param runnable The Runnable that you want to run.
+     */
+    public static void execute(@NotNull Plugin plugin, @NotNull Runnable runnable) {
+        Validate.notNull(plugin, "Plugin must be NotNull");
+        Validate.notNull(runnable, "Runnable must be NotNull");
+        backlog.incrementAndGet();
+        queue.add(new Work(plugin, runnable));
+        TaskHandle task = drainTask;
+        if(task == null || task.isDone()) {
+            startDraining();
+        }
+    }
+
+    /**
+     * Returns the amount of queued runnables that haven't run yet
+     *
+     * @return The backlog depth.
+     */
+    public static int getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * Returns how long the queue is drained each tick
+     *
+     * @return The budget, in milliseconds.
+     */
+    public static double getBudget() {
+        return budget / 1_000_000D;
+    }
+
+    /**
+     * Sets how long the queue is drained each tick, at least one runnable is run each tick regardless of the budget
+     *
+     * @param budget The budget, in milliseconds.
+     */
+    public static void setBudget(double budget) {
+        Validate.isTrue(budget > 0, "Budget must be positive");
+        MainThreadExecutor.budget = (long) (budget * 1_000_000D);
+    }
+
+    private static synchronized void startDraining() {
+        Plugin toolkit = JavaPlugin.getProvidingPlugin(MainThreadExecutor.class);
+        if(toolkit.isEnabled() && (drainTask == null || drainTask.isDone())) {
+            drainTask = Scheduler.runTask(Task.builder()
+                    .plugin(toolkit)
+                    .runnable(MainThreadExecutor::drain)
+                    .repeating(true)
+                    .period(1)
+                    .build());
+        }
+    }
+
+    private static void drain() {
+        long deadline = System.nanoTime() + budget;
+        Work work;
+        do {
+            work = queue.poll();
+            if(work == null) {
+                return;
+            }
+            backlog.decrementAndGet();
+            if(work.plugin.isEnabled()) {
+                try {
+                    work.runnable.run();
+                } catch (Throwable ex) {
+                    work.plugin.getLogger().log(Level.WARNING, "Main thread task of " + work.plugin.getDescription().getFullName() + " generated an exception", ex);
+                }
+            }
+        } while(System.nanoTime() - deadline < 0);
+    }
+
+    private record Work(@NotNull Plugin plugin, @NotNull Runnable runnable) {
+    }
+}
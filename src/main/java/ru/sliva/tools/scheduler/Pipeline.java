@@ -0,0 +1,171 @@
+package ru.sliva.tools.scheduler;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public final class Pipeline<T> {
+
+    private final Plugin plugin;
+    private final CompletableFuture<T> future;
+    private final Queue<Future<?>> stages;
+
+    private Pipeline(@NotNull Plugin plugin, @NotNull CompletableFuture<T> future, @NotNull Queue<Future<?>> stages) {
+        this.plugin = plugin;
+        this.future = future;
+        this.stages = stages;
+        stages.add(future);
+    }
+
+    /**
+     * Starts a pipeline from the future
+     *
+     * @param plugin The plugin that owns the pipeline.
+     * @param future The future of the first stage.
+     * @param <T> The type of the value.
+     * @return The pipeline.
+     */
+    @Contract("_, _ -> new")
+    static <T> @NotNull Pipeline<T> start(@NotNull Plugin plugin, @NotNull CompletableFuture<T> future) {
+        return new Pipeline<>(plugin, future, new ConcurrentLinkedQueue<>());
+    }
+
+    /**
+     * Applies the function to the value off the main thread
+     *
+     * @param function The function.
+     * @param <R> The type of the result.
+     * @return The next stage.
+     */
+    public <R> @NotNull Pipeline<R> thenAsync(@NotNull Function<? super T, ? extends R> function) {
+        Validate.notNull(function, "Function must be NotNull");
+        return next(future.thenApplyAsync(function, Scheduler.async()));
+    }
+
+    /**
+     * Applies the function to the value on the main thread
+     *
+     * @param function The function.
+     * @param <R> The type of the result.
+     * @return The next stage.
+     */
+    public <R> @NotNull Pipeline<R> thenSync(@NotNull Function<? super T, ? extends R> function) {
+        Validate.notNull(function, "Function must be NotNull");
+        return next(future.thenApplyAsync(function, Scheduler.mainThread(plugin)));
+    }
+
+    /**
+     * Consumes the value off the main thread
+     *
+     * @param consumer The consumer.
+     * @return The next stage.
+     */
+    public @NotNull Pipeline<Void> acceptAsync(@NotNull Consumer<? super T> consumer) {
+        Validate.notNull(consumer, "Consumer must be NotNull");
+        return next(future.thenAcceptAsync(consumer, Scheduler.async()));
+    }
+
+    /**
+     * Consumes the value on the main thread
+     *
+     * @param consumer The consumer.
+     * @return The next stage.
+     */
+    public @NotNull Pipeline<Void> acceptSync(@NotNull Consumer<? super T> consumer) {
+        Validate.notNull(consumer, "Consumer must be NotNull");
+        return next(future.thenAcceptAsync(consumer, Scheduler.mainThread(plugin)));
+    }
+
+    /**
+     * Recovers from an exception of the previous stages on the main thread
+     *
+     * @param function The function that takes the exception and returns the replacement value.
+     * @return The next stage.
+     */
+    public @NotNull Pipeline<T> exceptionallySync(@NotNull Function<Throwable, ? extends T> function) {
+        Validate.notNull(function, "Function must be NotNull");
+        return next(future.handleAsync((value, ex) -> ex == null ? value : function.apply(ex), Scheduler.mainThread(plugin)));
+    }
+
+    /**
+     * Passes the value on after the delay, the delay is a Bukkit task that is cancelled with the pipeline
+     *
+     * @param delay The delay, in ticks.
+     * @return The next stage.
+     */
+    public @NotNull Pipeline<T> delay(int delay) {
+        Validate.isTrue(delay >= 0, "Delay must not be negative");
+        CompletableFuture<T> delayed = new CompletableFuture<>();
+        future.whenComplete((value, ex) -> {
+            if(ex != null) {
+                delayed.completeExceptionally(ex);
+                return;
+            }
+            if(delayed.isDone()) {
+                return;
+            }
+            TaskHandle handle = Scheduler.runTask(Task.builder()
+                    .plugin(plugin)
+                    .runnable(() -> delayed.complete(value))
+                    .delay(delay)
+                    .build());
+            stages.add(handle.getCompletion());
+            if(delayed.isCancelled()) {
+                handle.cancel();
+            }
+        });
+        return next(delayed);
+    }
+
+    /**
+     * Cancels all the stages of the pipeline, the stages that haven't started yet will not run
+     *
+     * @return True if a stage was cancelled.
+     */
+    public boolean cancel() {
+        boolean cancelled = false;
+        for(Future<?> stage : stages) {
+            cancelled |= stage.cancel(false);
+        }
+        return cancelled;
+    }
+
+    /**
+     * Returns true if this stage is cancelled
+     *
+     * @return Is the stage cancelled.
+     */
+    public boolean isCancelled() {
+        return future.isCancelled();
+    }
+
+    /**
+     * Returns true if this stage is completed in any way
+     *
+     * @return Is the stage done.
+     */
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * Returns the future of this stage
+     *
+     * @return The future.
+     */
+    public @NotNull CompletableFuture<T> toFuture() {
+        return future;
+    }
+
+    private <R> @NotNull Pipeline<R> next(@NotNull CompletableFuture<R> future) {
+        return new Pipeline<>(plugin, future, stages);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.sliva.tools.scheduler;
 
+import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -7,47 +8,164 @@ import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.scheduler.BukkitTask;
-import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 public final class Scheduler implements Listener {
 
     private static final BukkitScheduler scheduler = Bukkit.getScheduler();
+    private static final Map<Plugin, Set<TaskHandle>> pluginTasks = new ConcurrentHashMap<>();
+    private static final Map<Integer, TaskHandle> tasks = new ConcurrentHashMap<>();
 
     /**
      * Runs the task
      *
      * @param task The Task that you want to run.
-     * @return The task ID.
+     * @return The handle of the task.
      */
-    @Contract(pure = true)
-    public static int runTask(@NotNull Task task) {
+    public static @NotNull TaskHandle runTask(@NotNull Task task) {
+        Validate.notNull(task, "Task must be NotNull");
         Plugin plugin = task.getPlugin();
-        Runnable runnable = task.getRunnable();
+        TaskHandle handle = new TaskHandle(task);
+        Runnable runnable = task.isVirtual() ? handle::dispatch : handle::run;
+        BukkitTask bukkitTask;
         if(task.isAsync()) {
             if(task.isRepeating()) {
-                return scheduler.runTaskTimerAsynchronously(plugin, runnable, task.getDelay(), task.getPeriod()).getTaskId();
+                bukkitTask = scheduler.runTaskTimerAsynchronously(plugin, runnable, task.getDelay(), task.getPeriod());
+            } else if(task.getDelay() > 0) {
+                bukkitTask = scheduler.runTaskLaterAsynchronously(plugin, runnable, task.getDelay());
             } else {
-                if(task.getDelay() > 0) {
-                    return scheduler.runTaskAsynchronously(plugin, runnable).getTaskId();
-                } else {
-                    return scheduler.runTaskLaterAsynchronously(plugin, runnable, task.getDelay()).getTaskId();
-                }
+                bukkitTask = scheduler.runTaskAsynchronously(plugin, runnable);
             }
         } else {
             if(task.isRepeating()) {
-                return scheduler.runTaskTimer(plugin, runnable, task.getDelay(), task.getPeriod()).getTaskId();
+                bukkitTask = scheduler.runTaskTimer(plugin, runnable, task.getDelay(), task.getPeriod());
+            } else if(task.getDelay() > 0) {
+                bukkitTask = scheduler.runTaskLater(plugin, runnable, task.getDelay());
             } else {
-                if(task.getDelay() > 0) {
-                    return scheduler.runTask(plugin, runnable).getTaskId();
-                } else {
-                    return scheduler.runTaskLater(plugin, runnable, task.getDelay()).getTaskId();
-                }
+                bukkitTask = scheduler.runTask(plugin, runnable);
             }
         }
+        handle.bind(bukkitTask);
+        pluginTasks.compute(plugin, (key, handles) -> {
+            if(handles == null) {
+                handles = ConcurrentHashMap.newKeySet();
+            }
+            handles.add(handle);
+            return handles;
+        });
+        tasks.put(bukkitTask.getTaskId(), handle);
+        handle.getCompletion().whenComplete((result, ex) -> untrack(handle));
+        return handle;
+    }
+
+    /**
+     * Runs the runnable on the main thread, immediately if it is called from the main thread.
+     * Otherwise it is queued to the {@link MainThreadExecutor} and runs within its tick budget.
+     *
+     * @param plugin The plugin that owns the runnable.
+     * @param runnable The Runnable that you want to run.
+     */
+    public static void runSync(@NotNull Plugin plugin, @NotNull Runnable runnable) {
+        Validate.notNull(plugin, "Plugin must be NotNull");
+        Validate.notNull(runnable, "Runnable must be NotNull");
+        if(Bukkit.isPrimaryThread()) {
+            runnable.run();
+        } else {
+            MainThreadExecutor.execute(plugin, runnable);
+        }
+    }
+
+    /**
+     * Runs the runnable on the main thread after the delay through the {@link TimingWheel}.
+     * It is much cheaper than a delayed {@link Task} when you schedule a lot of short one-shot timers.
+     *
+     * @param plugin The plugin that owns the runnable.
+     * @param runnable The Runnable that you want to run.
+     * @param delay The delay, in ticks.
+     * @return The timeout that can be cancelled.
+     */
+    public static @NotNull Timeout runLater(@NotNull Plugin plugin, @NotNull Runnable runnable, long delay) {
+        return TimingWheel.schedule(plugin, runnable, delay);
+    }
+
+    /**
+     * Returns an executor that runs the tasks on the main thread through {@link #runSync(Plugin, Runnable)}
+     *
+     * @param plugin The plugin that owns the tasks.
+     * @return The executor.
+     */
+    public static @NotNull Executor mainThread(@NotNull Plugin plugin) {
+        Validate.notNull(plugin, "Plugin must be NotNull");
+        return runnable -> runSync(plugin, runnable);
+    }
+
+    /**
+     * Returns an executor that runs the tasks off the main thread on the {@link AsyncExecutor}
+     *
+     * @return The executor.
+     */
+    public static @NotNull Executor async() {
+        return AsyncExecutor.getExecutor();
+    }
+
+    /**
+     * Starts a pipeline with a value that is computed off the main thread
+     *
+     * @param plugin The plugin that owns the pipeline.
+     * @param supplier The supplier of the value.
+     * @param <T> The type of the value.
+     * @return The pipeline.
+     */
+    public static <T> @NotNull Pipeline<T> supplyAsync(@NotNull Plugin plugin, @NotNull Supplier<T> supplier) {
+        Validate.notNull(plugin, "Plugin must be NotNull");
+        Validate.notNull(supplier, "Supplier must be NotNull");
+        return Pipeline.start(plugin, CompletableFuture.supplyAsync(supplier, async()));
+    }
+
+    /**
+     * Starts a pipeline with a value that is computed on the main thread
+     *
+     * @param plugin The plugin that owns the pipeline.
+     * @param supplier The supplier of the value.
+     * @param <T> The type of the value.
+     * @return The pipeline.
+     */
+    public static <T> @NotNull Pipeline<T> supplySync(@NotNull Plugin plugin, @NotNull Supplier<T> supplier) {
+        Validate.notNull(plugin, "Plugin must be NotNull");
+        Validate.notNull(supplier, "Supplier must be NotNull");
+        return Pipeline.start(plugin, CompletableFuture.supplyAsync(supplier, mainThread(plugin)));
+    }
+
+    /**
+     * Starts a pipeline with a runnable that is run off the main thread
+     *
+     * @param plugin The plugin that owns the pipeline.
+     * @param runnable The Runnable that you want to run.
+     * @return The pipeline.
+     */
+    public static @NotNull Pipeline<Void> runAsync(@NotNull Plugin plugin, @NotNull Runnable runnable) {
+        Validate.notNull(plugin, "Plugin must be NotNull");
+        Validate.notNull(runnable, "Runnable must be NotNull");
+        return Pipeline.start(plugin, CompletableFuture.runAsync(runnable, async()));
+    }
+
+    /**
+     * Cancels the task
+     *
+     * @param handle The handle of the task.
+     */
+    public static void stopTask(@NotNull TaskHandle handle) {
+        handle.cancel();
     }
 
     /**
@@ -56,17 +174,85 @@ public final class Scheduler implements Listener {
      * @param taskID The ID of the task to be cancelled.
      */
     public static void stopTask(int taskID) {
-        scheduler.cancelTask(taskID);
+        TaskHandle handle = getTask(taskID);
+        if(handle != null) {
+            handle.cancel();
+        } else {
+            scheduler.cancelTask(taskID);
+        }
+    }
+
+    /**
+     * Returns the handle of a task started by the toolkit
+     *
+     * @param taskID The ID of the task.
+     * @return The handle, or null if there is no such pending task.
+     */
+    public static @Nullable TaskHandle getTask(int taskID) {
+        TaskHandle handle = tasks.get(taskID);
+        return handle == null || isCancelled(handle) ? null : handle;
+    }
+
+    /**
+     * Returns the pending tasks of the plugin that were started by the toolkit
+     *
+     * @param plugin The plugin that owns the tasks.
+     * @return A list of task handles.
+     */
+    public static @NotNull List<TaskHandle> getTasks(@NotNull Plugin plugin) {
+        Set<TaskHandle> handles = pluginTasks.get(plugin);
+        if(handles == null) {
+            return List.of();
+        }
+        List<TaskHandle> pending = new ArrayList<>(handles.size());
+        for(TaskHandle handle : handles) {
+            if(!isCancelled(handle)) {
+                pending.add(handle);
+            }
+        }
+        return pending;
     }
 
     /**
-     * It stops all tasks that are owned by the plugin
+     * It stops all tasks and timeouts that are owned by the plugin and were started by the toolkit,
+     * the other tasks of the plugin are cancelled by Bukkit itself
      *
      * @param plugin The plugin that owns the tasks.
      */
     private static void stop(@NotNull Plugin plugin) {
-        List<BukkitTask> tasks = scheduler.getPendingTasks().stream().filter(bukkitTask -> Objects.equals(bukkitTask.getOwner(), plugin)).toList();
-        tasks.forEach(bukkitTask -> stopTask(bukkitTask.getTaskId()));
+        Set<TaskHandle> handles = pluginTasks.remove(plugin);
+        if(handles != null) {
+            handles.forEach(TaskHandle::cancel);
+        }
+        TimingWheel.cancel(plugin);
+    }
+
+    /**
+     * Tests if the task was cancelled, a task that was cancelled through Bukkit instead of the handle
+     * is removed from the index
+     *
+     * @param handle The handle of the task.
+     * @return Is the task cancelled.
+     */
+    private static boolean isCancelled(@NotNull TaskHandle handle) {
+        if(handle.isCancelled()) {
+            untrack(handle);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the task from the index after it is done
+     *
+     * @param handle The handle of the task.
+     */
+    private static void untrack(@NotNull TaskHandle handle) {
+        tasks.remove(handle.getTaskId(), handle);
+        pluginTasks.computeIfPresent(handle.getTask().getPlugin(), (plugin, handles) -> {
+            handles.remove(handle);
+            return handles.isEmpty() ? null : handles;
+        });
     }
 
     @EventHandler
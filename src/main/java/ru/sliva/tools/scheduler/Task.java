@@ -13,15 +13,17 @@ public final class Task {
 
     private final Runnable runnable;
     private final boolean async;
+    private final boolean virtual;
     private final int period;
     private final boolean repeating;
     private final int delay;
 
-    private Task(@NotNull Plugin plugin, @NotNull Runnable runnable, boolean async, int period, boolean repeating, int delay) {
+    private Task(@NotNull Plugin plugin, @NotNull Runnable runnable, boolean async, boolean virtual, int period, boolean repeating, int delay) {
         this.plugin = plugin;
 
         this.runnable = runnable;
         this.async = async;
+        this.virtual = virtual;
         this.period = period;
         this.repeating = repeating;
         this.delay = delay;
@@ -32,12 +34,12 @@ public final class Task {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Task task = (Task) o;
-        return async == task.async && period == task.period && repeating == task.repeating && delay == task.delay && Objects.equals(plugin, task.plugin) && Objects.equals(runnable, task.runnable);
+        return async == task.async && virtual == task.virtual && period == task.period && repeating == task.repeating && delay == task.delay && Objects.equals(plugin, task.plugin) && Objects.equals(runnable, task.runnable);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(plugin, runnable, async, period, repeating, delay);
+        return Objects.hash(plugin, runnable, async, virtual, period, repeating, delay);
     }
 
     @Override
@@ -46,6 +48,7 @@ public final class Task {
                 "plugin=" + plugin +
                 ", runnable=" + runnable +
                 ", async=" + async +
+                ", virtual=" + virtual +
                 ", period=" + period +
                 ", repeating=" + repeating +
                 ", delay=" + delay +
@@ -79,6 +82,15 @@ public final class Task {
         return async;
     }
 
+    /**
+     * Returns true if the asynchronous task runs on the {@link AsyncExecutor} instead of the Bukkit async pool
+     *
+     * @return Should the task run on virtual threads.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
     /**
      * Returns the period before task execution
      *
@@ -121,6 +133,7 @@ public final class Task {
 
         private Runnable runnable;
         private boolean async = false;
+        private boolean virtual = false;
         private int period = 0;
         private boolean repeating = false;
         private int delay = 0;
@@ -134,7 +147,7 @@ public final class Task {
         public @NotNull Task build() {
             Validate.notNull(plugin, "Plugin must be NotNull");
             Validate.notNull(runnable, "Runnable must be NotNull");
-            return new Task(plugin, runnable, async, period, repeating, delay);
+            return new Task(plugin, runnable, async || virtual, virtual, period, repeating, delay);
         }
 
         /**
@@ -172,6 +185,19 @@ public final class Task {
             return this;
         }
 
+        /**
+         * Sets the virtual flag of the task. A virtual task is asynchronous, the Bukkit scheduler only keeps its timing
+         * and each run is handed to the {@link AsyncExecutor}, which uses virtual threads when the runtime supports them
+         * and a bounded pool of platform threads otherwise. A repeating run is skipped while the previous one is still running.
+         *
+         * @param virtual If true, the task will be performed on virtual threads.
+         * @return Current builder.
+         */
+        public Builder virtual(boolean virtual) {
+            this.virtual = virtual;
+            return this;
+        }
+
         /**
          * Sets the period before run.
          *
@@ -0,0 +1,247 @@
+package ru.sliva.tools.scheduler;
+
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+public final class TaskHandle {
+
+    private final Task task;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    private volatile BukkitTask bukkitTask;
+    private volatile boolean cancelled;
+    private volatile boolean running;
+    private final AtomicBoolean dispatched = new AtomicBoolean();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final LongAdder totalTime = new LongAdder();
+    private final AtomicLong maxTime = new AtomicLong();
+    private volatile long lastTime;
+
+    TaskHandle(@NotNull Task task) {
+        this.task = task;
+        completion.whenComplete((result, ex) -> {
+            if(ex instanceof CancellationException) {
+                cancel();
+            }
+        });
+    }
+
+    /**
+     * Runs the runnable of the task and records the statistics, it is called by the scheduler
+     */
+    void run() {
+        if(cancelled) {
+            return;
+        }
+        running = true;
+        long start = System.nanoTime();
+        try {
+            task.getRunnable().run();
+            if(!task.isRepeating()) {
+                completion.complete(null);
+            }
+        } catch (Throwable ex) {
+            failures.incrementAndGet();
+            if(!task.isRepeating()) {
+                completion.completeExceptionally(ex);
+            }
+            throw ex;
+        } finally {
+            long time = System.nanoTime() - start;
+            runs.incrementAndGet();
+            totalTime.add(time);
+            lastTime = time;
+            long current;
+            while(time > (current = maxTime.get()) && !maxTime.compareAndSet(current, time)) {
+                Thread.onSpinWait();
+            }
+            running = false;
+        }
+    }
+
+    /**
+     * Hands the run of a virtual task to the {@link AsyncExecutor}, it is called by the scheduler.
+     * The run is skipped if the previous one hasn't finished yet.
+     */
+    void dispatch() {
+        if(cancelled || !dispatched.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            AsyncExecutor.execute(() -> {
+                try {
+                    run();
+                } catch (Throwable ex) {
+                    task.getPlugin().getLogger().log(Level.WARNING, "Virtual task of " + task.getPlugin().getDescription().getFullName() + " generated an exception", ex);
+                } finally {
+                    dispatched.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            dispatched.set(false);
+            task.getPlugin().getLogger().log(Level.WARNING, "Virtual task of " + task.getPlugin().getDescription().getFullName() + " was rejected", ex);
+            if(!task.isRepeating()) {
+                completion.completeExceptionally(ex);
+            }
+        }
+    }
+
+    /**
+     * Binds the handle to the scheduled Bukkit task
+     *
+     * @param bukkitTask The Bukkit task.
+     */
+    void bind(@NotNull BukkitTask bukkitTask) {
+        this.bukkitTask = bukkitTask;
+        if(cancelled) {
+            bukkitTask.cancel();
+        }
+    }
+
+    /**
+     * Cancels the task, the completion future is cancelled if it is not done yet
+     */
+    public void cancel() {
+        cancelled = true;
+        BukkitTask bukkitTask = this.bukkitTask;
+        if(bukkitTask != null) {
+            bukkitTask.cancel();
+        }
+        completion.cancel(false);
+    }
+
+    /**
+     * Returns the task that is scheduled
+     *
+     * @return The task.
+     */
+    public @NotNull Task getTask() {
+        return task;
+    }
+
+    /**
+     * Returns the scheduled Bukkit task
+     *
+     * @return The Bukkit task, or null if the task is not scheduled by Bukkit.
+     */
+    public @Nullable BukkitTask getBukkitTask() {
+        return bukkitTask;
+    }
+
+    /**
+     * Returns the ID of the task
+     *
+     * @return The task ID, or -1 if the task is not scheduled by Bukkit.
+     */
+    public int getTaskId() {
+        BukkitTask bukkitTask = this.bukkitTask;
+        return bukkitTask == null ? -1 : bukkitTask.getTaskId();
+    }
+
+    /**
+     * Returns true if the task is executing right now
+     *
+     * @return Is the task running.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns true if the task was cancelled, through the handle or through Bukkit
+     *
+     * @return Is the task cancelled.
+     */
+    public boolean isCancelled() {
+        BukkitTask bukkitTask = this.bukkitTask;
+        if(!cancelled && bukkitTask != null && bukkitTask.isCancelled()) {
+            cancel();
+        }
+        return cancelled;
+    }
+
+    /**
+     * Returns true if the task will not run anymore: a one-shot task has run or the task was cancelled
+     *
+     * @return Is the task done.
+     */
+    public boolean isDone() {
+        return isCancelled() || completion.isDone();
+    }
+
+    /**
+     * Returns the future that is completed after a one-shot task has run, or exceptionally if it has thrown.
+     * The future of a repeating task is only cancelled. Cancelling the future cancels the task.
+     *
+     * @return The future.
+     */
+    public @NotNull CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Returns how many times the task has run
+     *
+     * @return The amount of runs.
+     */
+    public long getRuns() {
+        return runs.get();
+    }
+
+    /**
+     * Returns how many times the task has thrown an exception
+     *
+     * @return The amount of failed runs.
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Returns the total execution time of the task
+     *
+     * @return The time, in nanoseconds.
+     */
+    public long getTotalTime() {
+        return totalTime.sum();
+    }
+
+    /**
+     * Returns the execution time of the last run
+     *
+     * @return The time, in nanoseconds.
+     */
+    public long getLastTime() {
+        return lastTime;
+    }
+
+    /**
+     * Returns the longest execution time of the task
+     *
+     * @return The time, in nanoseconds.
+     */
+    public long getMaxTime() {
+        return maxTime.get();
+    }
+
+    /**
+     * Returns the average execution time of the task
+     *
+     * @return The time, in nanoseconds.
+     */
+    public double getAverageTime() {
+        long runs = getRuns();
+        return runs == 0 ? 0 : (double) getTotalTime() / runs;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.sliva.tools.scheduler;
+
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class Timeout {
+
+    static final int PENDING = 0;
+    static final int CANCELLED = 1;
+    static final int EXPIRED = 2;
+
+    private final Plugin plugin;
+    private final Runnable runnable;
+    final long deadline;
+
+    Timeout previous;
+    Timeout next;
+    volatile int state = PENDING;
+
+    Timeout(@Nullable Plugin plugin, @Nullable Runnable runnable, long deadline) {
+        this.plugin = plugin;
+        this.runnable = runnable;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Cancels the timeout, it is removed from the wheel right away
+     *
+     * @return True if the timeout was pending.
+     */
+    public boolean cancel() {
+        return TimingWheel.cancel(this);
+    }
+
+    /**
+     * Returns true if the timeout was cancelled
+     *
+     * @return Is the timeout cancelled.
+     */
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    /**
+     * Returns true if the timeout has fired
+     *
+     * @return Is the timeout expired.
+     */
+    public boolean isExpired() {
+        return state == EXPIRED;
+    }
+
+    /**
+     * Returns the plugin that owns the timeout
+     *
+     * @return The plugin.
+     */
+    public @NotNull Plugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Returns the runnable that is run when the timeout fires
+     *
+     * @return The runnable.
+     */
+    public @NotNull Runnable getRunnable() {
+        return runnable;
+    }
+}
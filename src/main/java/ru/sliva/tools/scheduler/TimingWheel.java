@@ -0,0 +1,204 @@
+package ru.sliva.tools.scheduler;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.logging.Level;
+
+public final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long RANGE = 1L << (SLOT_BITS * LEVELS);
+
+    private static final Timeout[][] wheel = new Timeout[LEVELS][SLOTS];
+    private static final Object lock = new Object();
+
+    private static long tick;
+    private static int size;
+    private static volatile TaskHandle tickTask;
+
+    static {
+        for(Timeout[] level : wheel) {
+            for(int slot = 0; slot < SLOTS; slot++) {
+                Timeout head = new Timeout(null, null, 0);
+                head.previous = head;
+                head.next = head;
+                level[slot] = head;
+            }
+        }
+    }
+
+    private TimingWheel() {
+    }
+
+    /**
+     * Schedules the runnable to run on the main thread after the delay. Timeouts are kept in a hierarchical
+     * timing wheel of 4 levels by 64 slots that is advanced by a single repeating task, so scheduling and cancelling
+     * take constant time and every timeout is a single small object.
+     *
+     * @param plugin The plugin that owns the timeout, the runnable is not run if the plugin is disabled.
+     * @param runnable The Runnable that you want to run.
+     * @param delay The delay, in ticks.
+     * @return The timeout.
+     */
+    public static @NotNull Timeout schedule(@NotNull Plugin plugin, @NotNull Runnable runnable, long delay) {
+        Validate.notNull(plugin, "Plugin must be NotNull");
+        Validate.notNull(runnable, "Runnable must be NotNull");
+        Timeout timeout;
+        synchronized(lock) {
+            timeout = new Timeout(plugin, runnable, tick + Math.max(1, delay));
+            add(timeout);
+            size++;
+        }
+        TaskHandle task = tickTask;
+        if(task == null || task.isDone()) {
+            startTicking();
+        }
+        return timeout;
+    }
+
+    /**
+     * Returns the amount of pending timeouts
+     *
+     * @return The size of the wheel.
+     */
+    public static int size() {
+        synchronized(lock) {
+            return size;
+        }
+    }
+
+    /**
+     * Removes the timeout from the wheel
+     *
+     * @param timeout The timeout.
+     * @return True if the timeout was pending.
+     */
+    static boolean cancel(@NotNull Timeout timeout) {
+        synchronized(lock) {
+            if(timeout.state != Timeout.PENDING) {
+                return false;
+            }
+            unlink(timeout);
+            timeout.state = Timeout.CANCELLED;
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Removes the pending timeouts of the plugin from the wheel
+     *
+     * @param plugin The plugin that owns the timeouts.
+     */
+    static void cancel(@NotNull Plugin plugin) {
+        synchronized(lock) {
+            for(Timeout[] level : wheel) {
+                for(Timeout head : level) {
+                    Timeout timeout = head.next;
+                    while(timeout != head) {
+                        Timeout next = timeout.next;
+                        if(timeout.getPlugin() == plugin) {
+                            unlink(timeout);
+                            timeout.state = Timeout.CANCELLED;
+                            size--;
+                        }
+                        timeout = next;
+                    }
+                }
+            }
+        }
+    }
+
+    private static synchronized void startTicking() {
+        Plugin toolkit = JavaPlugin.getProvidingPlugin(TimingWheel.class);
+        if(toolkit.isEnabled() && (tickTask == null || tickTask.isDone())) {
+            tickTask = Scheduler.runTask(Task.builder()
+                    .plugin(toolkit)
+                    .runnable(TimingWheel::advance)
+                    .repeating(true)
+                    .period(1)
+                    .build());
+        }
+    }
+
+    private static void advance() {
+        Timeout head;
+        synchronized(lock) {
+            tick++;
+            for(int level = 1; level < LEVELS && (tick & mask(level - 1)) == 0; level++) {
+                cascade(level, (int) (tick >>> (SLOT_BITS * level)) & MASK);
+            }
+            head = wheel[0][(int) tick & MASK];
+        }
+        while(true) {
+            Timeout timeout;
+            synchronized(lock) {
+                timeout = head.next;
+                if(timeout == head) {
+                    return;
+                }
+                unlink(timeout);
+                timeout.state = Timeout.EXPIRED;
+                size--;
+            }
+            Plugin plugin = timeout.getPlugin();
+            if(plugin.isEnabled()) {
+                try {
+                    timeout.getRunnable().run();
+                } catch (Throwable ex) {
+                    plugin.getLogger().log(Level.WARNING, "Timeout of " + plugin.getDescription().getFullName() + " generated an exception", ex);
+                }
+            }
+        }
+    }
+
+    private static void cascade(int level, int slot) {
+        Timeout head = wheel[level][slot];
+        Timeout timeout = head.next;
+        head.previous = head;
+        head.next = head;
+        while(timeout != head) {
+            Timeout next = timeout.next;
+            add(timeout);
+            timeout = next;
+        }
+    }
+
+    private static void add(@NotNull Timeout timeout) {
+        long remaining = timeout.deadline - tick;
+        long deadline = timeout.deadline;
+        if(remaining >= RANGE) {
+            deadline = tick + RANGE - 1;
+            remaining = RANGE - 1;
+        }
+        int level = 0;
+        while(remaining > mask(level)) {
+            level++;
+        }
+        link(wheel[level][(int) (deadline >>> (SLOT_BITS * level)) & MASK], timeout);
+    }
+
+    private static long mask(int level) {
+        return (1L << (SLOT_BITS * (level + 1))) - 1;
+    }
+
+    private static void link(@NotNull Timeout head, @NotNull Timeout timeout) {
+        timeout.previous = head.previous;
+        timeout.next = head;
+        head.previous.next = timeout;
+        head.previous = timeout;
+    }
+
+    private static void unlink(@NotNull Timeout timeout) {
+        timeout.previous.next = timeout.next;
+        timeout.next.previous = timeout.previous;
+        timeout.previous = null;
+        timeout.next = null;
+    }
+}
@@ -0,0 +1,94 @@
+package ru.sliva.tools.scoreboard;
+
+import com.comphenix.protocol.events.PacketContainer;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Set;
+
+final class PacketSidebarBoard extends SidebarBoard {
+
+    private static int counter;
+
+    private final String objective = "btk" + Integer.toHexString(counter++);
+    private final Set<Player> viewers = new HashSet<>();
+
+    @Override
+    void show(@NotNull Player player) {
+        if(!viewers.add(player)) {
+            return;
+        }
+        Sidebar sidebar = getSidebar();
+        int size = sidebar.getLines().size();
+        SidebarPackets.send(player, SidebarPackets.createObjective(objective, sidebar.getSerializedTitle()));
+        for(int index = 0; index < size; index++) {
+            String entry = entry(index);
+            SidebarPackets.send(player, SidebarPackets.createTeam(team(index), sidebar.getSerializedLine(index), entry));
+            SidebarPackets.send(player, SidebarPackets.changeScore(objective, entry, size - index));
+        }
+        SidebarPackets.send(player, SidebarPackets.displayObjective(objective));
+    }
+
+    @Override
+    void hide(@NotNull Player player) {
+        if(!viewers.remove(player)) {
+            return;
+        }
+        int size = getSidebar().getLines().size();
+        for(int index = 0; index < size; index++) {
+            SidebarPackets.send(player, SidebarPackets.removeTeam(team(index)));
+        }
+        SidebarPackets.send(player, SidebarPackets.removeObjective(objective));
+    }
+
+    @Override
+    void release(@NotNull Player player) {
+        viewers.remove(player);
+    }
+
+    @Override
+    void createObjective(@NotNull Component title) {
+        broadcast(SidebarPackets.createObjective(objective, getSidebar().getSerializedTitle()));
+        broadcast(SidebarPackets.displayObjective(objective));
+    }
+
+    @Override
+    void updateTitle(@NotNull Component title) {
+        broadcast(SidebarPackets.updateObjective(objective, getSidebar().getSerializedTitle()));
+    }
+
+    @Override
+    void createLine(int index, @NotNull Component line, int score) {
+        String entry = entry(index);
+        broadcast(SidebarPackets.createTeam(team(index), getSidebar().getSerializedLine(index), entry));
+        broadcast(SidebarPackets.changeScore(objective, entry, score));
+    }
+
+    @Override
+    void updateLine(int index, @NotNull Component line) {
+        broadcast(SidebarPackets.updateTeam(team(index), getSidebar().getSerializedLine(index)));
+    }
+
+    @Override
+    void updateScore(int index, int score) {
+        broadcast(SidebarPackets.changeScore(objective, entry(index), score));
+    }
+
+    @Override
+    void removeLine(int index) {
+        broadcast(SidebarPackets.removeScore(objective, entry(index)));
+        broadcast(SidebarPackets.removeTeam(team(index)));
+    }
+
+    private void broadcast(@NotNull PacketContainer packet) {
+        for(Player viewer : viewers) {
+            SidebarPackets.send(viewer, packet);
+        }
+    }
+
+    private @NotNull String team(int index) {
+        return objective + "." + index;
+    }
+}
@@ -1,41 +1,175 @@
 package ru.sliva.tools.scoreboard;
 
-import net.kyori.adventure.text.Component;
+import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
-import org.bukkit.scoreboard.*;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.UnmodifiableView;
+import ru.sliva.tools.scheduler.Scheduler;
+import ru.sliva.tools.scheduler.Task;
 
-public final class ScoreboardManager {
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+public final class ScoreboardManager implements Listener {
 
     private static final org.bukkit.scoreboard.ScoreboardManager scoreboardManager = Bukkit.getScoreboardManager();
+    private static final Map<UUID, SidebarBoard> boards = new HashMap<>();
+    private static final Map<UUID, SharedSidebar> sharedSidebars = new HashMap<>();
+    private static final Map<UUID, TemplatedSidebar> templates = new HashMap<>();
+    private static final Set<SharedSidebar> templatedSidebars = new HashSet<>();
+    private static final Map<UUID, Sidebar> pending = new ConcurrentHashMap<>();
+    private static final Map<UUID, CompletableFuture<? extends Sidebar>> requests = new ConcurrentHashMap<>();
+
+    private static final Map<Plugin, Set<UUID>> playerSidebars = new HashMap<>();
+    private static final Map<Plugin, Set<SharedSidebar>> pluginSharedSidebars = new HashMap<>();
+
+    private static SidebarBackend backend = SidebarBackend.SCOREBOARD;
+    private static int updateInterval = 1;
+    private static long tick;
+    private static boolean ticking;
 
     /**
-     * Shows the sidebar to the player
+     * Shows the sidebar to the player, reusing the player's board and updating only what changed.
+     * Updates are queued and flushed at most once per update interval, superseded sidebars are dropped.
      *
      * @param player The player to set the sidebar for.
      * @param sidebar The sidebar to set.
      */
     public static void setSidebar(@NotNull Player player, @NotNull Sidebar sidebar) {
-        Scoreboard scoreboard = scoreboardManager.getNewScoreboard();
-        Objective objective = scoreboard.registerNewObjective("sidebar", "dummy", sidebar.getTitle());
-        objective.setDisplaySlot(DisplaySlot.SIDEBAR);
-        String id = "d";
-        String name = ChatColor.RESET.toString();
-        int number = sidebar.getLines().size();
-        for(Component line : sidebar.getLines()) {
-            Team team = scoreboard.registerNewTeam(id);
-            id += id;
-            team.prefix(line);
-            team.addEntry(name);
-            Score score = objective.getScore(name);
-            score.setScore(number);
-            number--;
-            name += name;
+        Validate.notNull(sidebar, "Sidebar cannot be null");
+        templates.remove(player.getUniqueId());
+        requests.remove(player.getUniqueId());
+        queue(player.getUniqueId(), sidebar);
+    }
+
+    /**
+     * Shows the sidebar to the player once the future completes. The sidebar is serialized for the packet backend
+     * on the thread that completes the future, only the diff and the update are done on the main thread.
+     * The template of the player is removed right away, the result is dropped if another sidebar was set
+     * for the player in the meantime.
+     *
+     * @param player The player to set the sidebar for.
+     * @param sidebar The future of the sidebar.
+     */
+    public static void setSidebar(@NotNull Player player, @NotNull CompletableFuture<? extends Sidebar> sidebar) {
+        Validate.notNull(sidebar, "Sidebar cannot be null");
+        UUID uniqueId = player.getUniqueId();
+        String name = player.getName();
+        Plugin plugin = JavaPlugin.getProvidingPlugin(ScoreboardManager.class);
+        startTicking();
+        templates.remove(uniqueId);
+        requests.put(uniqueId, sidebar);
+        sidebar.thenApply(ScoreboardManager::prepare).whenCompleteAsync((result, ex) -> {
+            if(!requests.remove(uniqueId, sidebar)) {
+                return;
+            }
+            if(ex != null) {
+                plugin.getLogger().log(Level.WARNING, "Cannot compute the sidebar of " + name, ex);
+                return;
+            }
+            if(result != null) {
+                pending.put(uniqueId, result);
+            }
+        }, Scheduler.mainThread(plugin));
+    }
+
+    /**
+     * Computes the sidebar off the main thread and shows it to the player
+     *
+     * @param player The player to set the sidebar for.
+     * @param sidebar The supplier of the sidebar, called asynchronously.
+     * @see #setSidebar(Player, CompletableFuture)
+     */
+    public static void setSidebarAsync(@NotNull Player player, @NotNull Supplier<? extends Sidebar> sidebar) {
+        Validate.notNull(sidebar, "Sidebar cannot be null");
+        setSidebar(player, CompletableFuture.supplyAsync(sidebar, Scheduler.async()));
+    }
+
+    /**
+     * Shows the templated sidebar to the player, its values are polled and only changed lines are updated
+     *
+     * @param player The player to set the sidebar for.
+     * @param template The template of the sidebar.
+     */
+    public static void setSidebar(@NotNull Player player, @NotNull SidebarTemplate template) {
+        Validate.notNull(template, "Template cannot be null");
+        startTicking();
+        TemplatedSidebar sidebar = new TemplatedSidebar(template, tick);
+        requests.remove(player.getUniqueId());
+        templates.put(player.getUniqueId(), sidebar);
+        queue(player.getUniqueId(), sidebar.getSidebar());
+    }
+
+    /**
+     * Shows the shared sidebar to the player, replacing the sidebar the player had before
+     *
+     * @param player The player to set the sidebar for.
+     * @param sidebar The shared sidebar to set.
+     */
+    public static void setSidebar(@NotNull Player player, @NotNull SharedSidebar sidebar) {
+        templates.remove(player.getUniqueId());
+        requests.remove(player.getUniqueId());
+        pending.remove(player.getUniqueId());
+        sidebar.show(player);
+
+        SharedSidebar shared = sharedSidebars.put(player.getUniqueId(), sidebar);
+        if(shared != null && shared != sidebar) {
+            shared.hide(player);
         }
+        SidebarBoard board = removeBoard(player.getUniqueId());
+        if(board != null) {
+            board.hide(player);
+        }
+    }
+
+    /**
+     * Creates a sidebar that is rendered once and shown to any amount of players.
+     * Shared sidebars keep the backend they were created with and are owned by the plugin of the initial sidebar.
+     *
+     * @param sidebar The initial sidebar.
+     * @return The shared sidebar without viewers.
+     */
+    public static @NotNull SharedSidebar createSharedSidebar(@NotNull Sidebar sidebar) {
+        Validate.notNull(sidebar, "Sidebar cannot be null");
+        SharedSidebar shared = register(new SharedSidebar(sidebar.getPlugin(), backend.createBoard()));
+        shared.update(sidebar);
+        return shared;
+    }
+
+    /**
+     * Creates a shared sidebar that is bound to the template
+     *
+     * @param template The template of the sidebar.
+     * @return The shared sidebar without viewers.
+     * @see #createSharedSidebar(Sidebar)
+     */
+    public static @NotNull SharedSidebar createSharedSidebar(@NotNull SidebarTemplate template) {
+        Validate.notNull(template, "Template cannot be null");
+        SharedSidebar shared = register(new SharedSidebar(template.getPlugin(), backend.createBoard()));
+        shared.update(template);
+        return shared;
+    }
 
-        player.setScoreboard(scoreboard);
+    static @NotNull TemplatedSidebar bind(@NotNull SharedSidebar sidebar, @NotNull SidebarTemplate template) {
+        startTicking();
+        templatedSidebars.add(sidebar);
+        return new TemplatedSidebar(template, tick);
     }
 
     /**
@@ -44,7 +178,259 @@ public final class ScoreboardManager {
      * @param player The player whose sidebars are being removed.
      */
     public static void removeSidebars(@NotNull Player player) {
-        player.setScoreboard(scoreboardManager.getMainScoreboard());
+        templates.remove(player.getUniqueId());
+        requests.remove(player.getUniqueId());
+        pending.remove(player.getUniqueId());
+        SidebarBoard board = removeBoard(player.getUniqueId());
+        if(board != null) {
+            board.hide(player);
+        }
+        SharedSidebar shared = sharedSidebars.remove(player.getUniqueId());
+        if(shared != null) {
+            shared.hide(player);
+        }
+        if(player.getScoreboard() != scoreboardManager.getMainScoreboard()) {
+            player.setScoreboard(scoreboardManager.getMainScoreboard());
+        }
+    }
+
+    /**
+     * Removes all the sidebars owned by the plugin, both shown to players and shared
+     *
+     * @param plugin The plugin that owns the sidebars.
+     */
+    public static void removeSidebars(@NotNull Plugin plugin) {
+        templates.values().removeIf(template -> template.getPlugin() == plugin);
+        pending.values().removeIf(sidebar -> sidebar.getPlugin() == plugin);
+
+        Set<UUID> players = playerSidebars.remove(plugin);
+        if(players != null) {
+            for(UUID uniqueId : players) {
+                Player player = Bukkit.getPlayer(uniqueId);
+                if(player != null) {
+                    removeSidebars(player);
+                } else {
+                    boards.remove(uniqueId);
+                }
+            }
+        }
+
+        Set<SharedSidebar> shared = pluginSharedSidebars.remove(plugin);
+        if(shared != null) {
+            shared.forEach(SharedSidebar::remove);
+        }
+    }
+
+    /**
+     * Returns the unique ids of the players who see a sidebar owned by the plugin
+     *
+     * @param plugin The plugin that owns the sidebars.
+     * @return The players.
+     */
+    public static @NotNull @UnmodifiableView Set<UUID> getSidebars(@NotNull Plugin plugin) {
+        return Collections.unmodifiableSet(playerSidebars.getOrDefault(plugin, Collections.emptySet()));
+    }
+
+    /**
+     * Returns the shared sidebars owned by the plugin
+     *
+     * @param plugin The plugin that owns the sidebars.
+     * @return The shared sidebars.
+     */
+    public static @NotNull @UnmodifiableView Set<SharedSidebar> getSharedSidebars(@NotNull Plugin plugin) {
+        return Collections.unmodifiableSet(pluginSharedSidebars.getOrDefault(plugin, Collections.emptySet()));
     }
 
+    /**
+     * Returns the backend that renders new sidebars
+     *
+     * @return The backend.
+     */
+    public static @NotNull SidebarBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Sets the backend that renders sidebars, player sidebars that are already shown are moved to the new backend
+     *
+     * @param backend The backend.
+     */
+    public static void setBackend(@NotNull SidebarBackend backend) {
+        Validate.notNull(backend, "Backend cannot be null");
+        if(backend == SidebarBackend.PACKET) {
+            Validate.isTrue(Bukkit.getPluginManager().isPluginEnabled("ProtocolLib"), "ProtocolLib is required for the packet backend");
+        }
+        if(ScoreboardManager.backend == backend) {
+            return;
+        }
+        ScoreboardManager.backend = backend;
+
+        for(Map.Entry<UUID, SidebarBoard> entry : boards.entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            SidebarBoard old = entry.getValue();
+            SidebarBoard board = backend.createBoard();
+            board.apply(old.getSidebar());
+            entry.setValue(board);
+            if(player != null) {
+                board.show(player);
+                old.hide(player);
+            }
+        }
+    }
+
+    /**
+     * Returns the minimal interval between two sidebar updates of the same player
+     *
+     * @return The interval, in ticks.
+     */
+    public static int getUpdateInterval() {
+        return updateInterval;
+    }
+
+    /**
+     * Sets the minimal interval between two sidebar updates of the same player
+     *
+     * @param updateInterval The interval, in ticks.
+     */
+    public static void setUpdateInterval(int updateInterval) {
+        Validate.isTrue(updateInterval > 0, "Update interval must be positive");
+        ScoreboardManager.updateInterval = updateInterval;
+    }
+
+    static void unregister(@NotNull SharedSidebar sidebar) {
+        templatedSidebars.remove(sidebar);
+        Set<SharedSidebar> shared = pluginSharedSidebars.get(sidebar.getPlugin());
+        if(shared != null) {
+            shared.remove(sidebar);
+            if(shared.isEmpty()) {
+                pluginSharedSidebars.remove(sidebar.getPlugin());
+            }
+        }
+    }
+
+    private static @NotNull SharedSidebar register(@NotNull SharedSidebar sidebar) {
+        pluginSharedSidebars.computeIfAbsent(sidebar.getPlugin(), plugin -> new HashSet<>()).add(sidebar);
+        return sidebar;
+    }
+
+    private static <T extends Sidebar> T prepare(T sidebar) {
+        if(sidebar != null && backend == SidebarBackend.PACKET) {
+            sidebar.serialize();
+        }
+        return sidebar;
+    }
+
+    private static void queue(@NotNull UUID uniqueId, @NotNull Sidebar sidebar) {
+        startTicking();
+        pending.put(uniqueId, sidebar);
+    }
+
+    private static void show(@NotNull Player player, @NotNull Sidebar sidebar) {
+        UUID uniqueId = player.getUniqueId();
+        SidebarBoard board = boards.get(uniqueId);
+        if(board == null) {
+            board = backend.createBoard();
+            boards.put(uniqueId, board);
+        } else if(board.getSidebar().getPlugin() != sidebar.getPlugin()) {
+            disown(board.getSidebar().getPlugin(), uniqueId);
+        }
+        playerSidebars.computeIfAbsent(sidebar.getPlugin(), plugin -> new HashSet<>()).add(uniqueId);
+
+        board.apply(sidebar);
+        board.show(player);
+        board.setUpdated(tick);
+
+        SharedSidebar shared = sharedSidebars.remove(uniqueId);
+        if(shared != null) {
+            shared.hide(player);
+        }
+    }
+
+    private static SidebarBoard removeBoard(@NotNull UUID uniqueId) {
+        SidebarBoard board = boards.remove(uniqueId);
+        if(board != null) {
+            disown(board.getSidebar().getPlugin(), uniqueId);
+        }
+        return board;
+    }
+
+    private static void disown(@NotNull Plugin plugin, @NotNull UUID uniqueId) {
+        Set<UUID> players = playerSidebars.get(plugin);
+        if(players != null) {
+            players.remove(uniqueId);
+            if(players.isEmpty()) {
+                playerSidebars.remove(plugin);
+            }
+        }
+    }
+
+    private static void startTicking() {
+        if(ticking) {
+            return;
+        }
+        ticking = true;
+        Scheduler.runTask(Task.builder()
+                .plugin(JavaPlugin.getProvidingPlugin(ScoreboardManager.class))
+                .runnable(ScoreboardManager::tick)
+                .repeating(true)
+                .period(1)
+                .build());
+    }
+
+    private static void tick() {
+        tick++;
+        // Template suppliers may set or remove sidebars, so snapshots are polled
+        for(UUID uniqueId : List.copyOf(templates.keySet())) {
+            TemplatedSidebar template = templates.get(uniqueId);
+            if(template == null) {
+                continue;
+            }
+            Sidebar sidebar = template.poll(tick);
+            if(sidebar != null && templates.get(uniqueId) == template) {
+                pending.put(uniqueId, sidebar);
+            }
+        }
+        for(SharedSidebar sidebar : List.copyOf(templatedSidebars)) {
+            if(templatedSidebars.contains(sidebar) && !sidebar.poll(tick)) {
+                templatedSidebars.remove(sidebar);
+            }
+        }
+        flush();
+    }
+
+    private static void flush() {
+        for(UUID uniqueId : pending.keySet()) {
+            SidebarBoard board = boards.get(uniqueId);
+            if(board != null && tick - board.getUpdated() < updateInterval) {
+                continue;
+            }
+            Sidebar sidebar = pending.remove(uniqueId);
+            Player player = Bukkit.getPlayer(uniqueId);
+            if(sidebar != null && player != null && sidebar.getPlugin().isEnabled()) {
+                show(player, sidebar);
+            }
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        UUID uniqueId = player.getUniqueId();
+        templates.remove(uniqueId);
+        requests.remove(uniqueId);
+        pending.remove(uniqueId);
+        SidebarBoard board = removeBoard(uniqueId);
+        if(board != null) {
+            board.release(player);
+        }
+        SharedSidebar shared = sharedSidebars.remove(uniqueId);
+        if(shared != null) {
+            shared.release(player);
+        }
+    }
+
+    @EventHandler
+    public void onPluginDisable(@NotNull PluginDisableEvent event) {
+        removeSidebars(event.getPlugin());
+    }
 }
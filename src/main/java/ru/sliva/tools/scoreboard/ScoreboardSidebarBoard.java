@@ -0,0 +1,76 @@
+package ru.sliva.tools.scoreboard;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.DisplaySlot;
+import org.bukkit.scoreboard.Objective;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class ScoreboardSidebarBoard extends SidebarBoard {
+
+    private final Scoreboard scoreboard = Bukkit.getScoreboardManager().getNewScoreboard();
+    private final List<Team> teams = new ArrayList<>();
+
+    private Objective objective;
+
+    @Override
+    void show(@NotNull Player player) {
+        if(player.getScoreboard() != scoreboard) {
+            player.setScoreboard(scoreboard);
+        }
+    }
+
+    @Override
+    void hide(@NotNull Player player) {
+        if(player.getScoreboard() == scoreboard) {
+            player.setScoreboard(Bukkit.getScoreboardManager().getMainScoreboard());
+        }
+    }
+
+    @Override
+    void release(@NotNull Player player) {
+    }
+
+    @Override
+    void createObjective(@NotNull Component title) {
+        objective = scoreboard.registerNewObjective("sidebar", "dummy", title);
+        objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+    }
+
+    @Override
+    void updateTitle(@NotNull Component title) {
+        objective.displayName(title);
+    }
+
+    @Override
+    void createLine(int index, @NotNull Component line, int score) {
+        String entry = entry(index);
+        Team team = scoreboard.registerNewTeam("line" + index);
+        team.addEntry(entry);
+        team.prefix(line);
+        teams.add(team);
+        objective.getScore(entry).setScore(score);
+    }
+
+    @Override
+    void updateLine(int index, @NotNull Component line) {
+        teams.get(index).prefix(line);
+    }
+
+    @Override
+    void updateScore(int index, int score) {
+        objective.getScore(entry(index)).setScore(score);
+    }
+
+    @Override
+    void removeLine(int index) {
+        scoreboard.resetScores(entry(index));
+        teams.remove(index).unregister();
+    }
+}
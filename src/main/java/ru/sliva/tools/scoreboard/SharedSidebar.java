@@ -0,0 +1,149 @@
+package ru.sliva.tools.scoreboard;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.UnmodifiableView;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public final class SharedSidebar {
+
+    private final Plugin plugin;
+
+    private final SidebarBoard board;
+    private final Set<UUID> viewers = new HashSet<>();
+
+    private TemplatedSidebar template;
+
+    SharedSidebar(@NotNull Plugin plugin, @NotNull SidebarBoard board) {
+        this.plugin = plugin;
+
+        this.board = board;
+    }
+
+    /**
+     * Returns the plugin that owns this sidebar
+     *
+     * @return The plugin.
+     */
+    public @NotNull Plugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Returns the sidebar that is currently shown to the viewers
+     *
+     * @return The sidebar.
+     */
+    public @NotNull Sidebar getSidebar() {
+        return board.getSidebar();
+    }
+
+    /**
+     * Updates the sidebar for every viewer, the changes are encoded once and sent to all of them
+     *
+     * @param sidebar The new sidebar.
+     */
+    public void update(@NotNull Sidebar sidebar) {
+        Validate.notNull(sidebar, "Sidebar cannot be null");
+        template = null;
+        board.apply(sidebar);
+    }
+
+    /**
+     * Binds the sidebar to the template, its values are polled and only changed lines are sent to the viewers
+     *
+     * @param template The template.
+     */
+    public void update(@NotNull SidebarTemplate template) {
+        Validate.notNull(template, "Template cannot be null");
+        this.template = ScoreboardManager.bind(this, template);
+        board.apply(this.template.getSidebar());
+    }
+
+    /**
+     * Shows this sidebar to the player, replacing the sidebar the player had before
+     *
+     * @param player The player.
+     */
+    public void addViewer(@NotNull Player player) {
+        ScoreboardManager.setSidebar(player, this);
+    }
+
+    /**
+     * Hides this sidebar from the player
+     *
+     * @param player The player.
+     */
+    public void removeViewer(@NotNull Player player) {
+        if(viewers.contains(player.getUniqueId())) {
+            ScoreboardManager.removeSidebars(player);
+        }
+    }
+
+    /**
+     * Returns the unique ids of the players who see this sidebar
+     *
+     * @return The viewers.
+     */
+    public @NotNull @UnmodifiableView Set<UUID> getViewers() {
+        return Collections.unmodifiableSet(viewers);
+    }
+
+    /**
+     * Hides this sidebar from all the viewers and stops tracking it
+     */
+    public void remove() {
+        for(UUID viewer : List.copyOf(viewers)) {
+            Player player = Bukkit.getPlayer(viewer);
+            if(player != null) {
+                ScoreboardManager.removeSidebars(player);
+            }
+        }
+        viewers.clear();
+        template = null;
+        ScoreboardManager.unregister(this);
+    }
+
+    /**
+     * Polls the template the sidebar is bound to
+     *
+     * @param tick The current tick.
+     * @return False if the sidebar is no longer bound to a template.
+     */
+    boolean poll(long tick) {
+        if(template == null) {
+            return false;
+        }
+        Sidebar sidebar = template.poll(tick);
+        if(sidebar != null) {
+            board.apply(sidebar);
+        }
+        return true;
+    }
+
+    void show(@NotNull Player player) {
+        if(viewers.add(player.getUniqueId())) {
+            board.show(player);
+        }
+    }
+
+    void hide(@NotNull Player player) {
+        if(viewers.remove(player.getUniqueId())) {
+            board.hide(player);
+        }
+    }
+
+    void release(@NotNull Player player) {
+        if(viewers.remove(player.getUniqueId())) {
+            board.release(player);
+        }
+    }
+}
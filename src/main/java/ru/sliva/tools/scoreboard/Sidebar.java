@@ -1,7 +1,9 @@
 package ru.sliva.tools.scoreboard;
 
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
@@ -11,12 +13,24 @@ import java.util.Objects;
 
 public final class Sidebar {
 
+    /**
+     * The maximum amount of lines the client renders in a sidebar.
+     */
+    public static final int MAX_LINES = 15;
+
+    private final Plugin plugin;
+
     private final Component title;
     private final List<Component> lines;
 
-    private Sidebar(Component title, List<Component> lines) {
+    private final String[] serialized;
+
+    private Sidebar(Plugin plugin, Component title, List<Component> lines) {
+        this.plugin = plugin;
+
         this.title = title;
         this.lines = lines;
+        this.serialized = new String[lines.size() + 1];
     }
 
     @Override
@@ -24,22 +38,32 @@ public final class Sidebar {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Sidebar sidebar = (Sidebar) o;
-        return Objects.equals(title, sidebar.title) && Objects.equals(lines, sidebar.lines);
+        return Objects.equals(plugin, sidebar.plugin) && Objects.equals(title, sidebar.title) && Objects.equals(lines, sidebar.lines);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(title, lines);
+        return Objects.hash(plugin, title, lines);
     }
 
     @Override
     public String toString() {
         return "Sidebar{" +
-                "title=" + title +
+                "plugin=" + plugin +
+                ", title=" + title +
                 ", lines=" + lines +
                 '}';
     }
 
+    /**
+     * Returns the plugin that owns this sidebar
+     *
+     * @return The plugin.
+     */
+    public @NotNull Plugin getPlugin() {
+        return plugin;
+    }
+
     /**
      * Returns the title of the sidebar
      *
@@ -58,6 +82,44 @@ public final class Sidebar {
         return lines;
     }
 
+    /**
+     * Returns the title serialized to JSON, it is serialized once and then reused
+     *
+     * @return The JSON of the title.
+     */
+    @NotNull String getSerializedTitle() {
+        return serialized(0);
+    }
+
+    /**
+     * Returns the line serialized to JSON, it is serialized once and then reused
+     *
+     * @param index The index of the line.
+     * @return The JSON of the line.
+     */
+    @NotNull String getSerializedLine(int index) {
+        return serialized(index + 1);
+    }
+
+    /**
+     * Serializes the title and all the lines to JSON for the packet backend, it is called off the main thread
+     * so that the main thread only diffs and sends the sidebar
+     */
+    void serialize() {
+        for(int index = 0; index < serialized.length; index++) {
+            serialized(index);
+        }
+    }
+
+    private @NotNull String serialized(int index) {
+        String json = serialized[index];
+        if(json == null) {
+            json = GsonComponentSerializer.gson().serialize(index == 0 ? title : lines.get(index - 1));
+            serialized[index] = json;
+        }
+        return json;
+    }
+
     /**
      * Returns a builder for creating a new instance of the sidebar
      *
@@ -70,6 +132,8 @@ public final class Sidebar {
 
     public static class Builder {
 
+        private Plugin plugin;
+
         private Component title;
         private List<Component> lines;
 
@@ -81,7 +145,21 @@ public final class Sidebar {
         public Sidebar build() {
             Validate.notNull(title, "Title cannot be null");
             Validate.notNull(lines, "Lines cannot be null");
-            return new Sidebar(title, lines);
+            Validate.isTrue(lines.size() <= MAX_LINES, "Sidebar cannot have more than " + MAX_LINES + " lines");
+            Validate.notNull(plugin, "Plugin cannot be null");
+            return new Sidebar(plugin, title, List.copyOf(lines));
+        }
+
+        /**
+         * Sets the owner of the sidebar, its sidebars are removed when the plugin is disabled
+         *
+         * @param plugin The plugin that is owner of the sidebar.
+         * @return Current builder.
+         */
+        public Builder plugin(@NotNull Plugin plugin) {
+            Validate.notNull(plugin, "Plugin cannot be null");
+            this.plugin = plugin;
+            return this;
         }
 
         /**
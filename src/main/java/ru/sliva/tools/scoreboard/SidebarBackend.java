@@ -0,0 +1,34 @@
+package ru.sliva.tools.scoreboard;
+
+import org.jetbrains.annotations.NotNull;
+
+public enum SidebarBackend {
+
+    /**
+     * Renders sidebars through Bukkit scoreboards, one server-side scoreboard per sidebar.
+     */
+    SCOREBOARD {
+        @Override
+        @NotNull SidebarBoard createBoard() {
+            return new ScoreboardSidebarBoard();
+        }
+    },
+
+    /**
+     * Renders sidebars by sending scoreboard packets straight to the players through ProtocolLib.
+     * No server-side scoreboard objects are kept.
+     */
+    PACKET {
+        @Override
+        @NotNull SidebarBoard createBoard() {
+            return new PacketSidebarBoard();
+        }
+    };
+
+    /**
+     * Creates an empty board rendered by this backend
+     *
+     * @return The board.
+     */
+    abstract @NotNull SidebarBoard createBoard();
+}
@@ -0,0 +1,128 @@
+package ru.sliva.tools.scoreboard;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Objects;
+
+abstract class SidebarBoard {
+
+    private static final ChatColor[] COLORS = ChatColor.values();
+
+    private Sidebar sidebar;
+    private long updated;
+
+    /**
+     * Returns the sidebar that is currently shown
+     *
+     * @return The last applied sidebar.
+     */
+    final @NotNull Sidebar getSidebar() {
+        return sidebar;
+    }
+
+    /**
+     * Returns the tick the board was last updated at
+     *
+     * @return The tick.
+     */
+    final long getUpdated() {
+        return updated;
+    }
+
+    final void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    /**
+     * Updates the board to match the sidebar, touching only the title, prefixes and lines that differ
+     *
+     * @param sidebar The sidebar to show.
+     */
+    final void apply(@NotNull Sidebar sidebar) {
+        Sidebar previous = this.sidebar;
+        this.sidebar = sidebar;
+
+        List<Component> lines = sidebar.getLines();
+        int size = lines.size();
+
+        if(previous == null) {
+            createObjective(sidebar.getTitle());
+            for(int index = 0; index < size; index++) {
+                createLine(index, lines.get(index), size - index);
+            }
+            return;
+        }
+
+        if(!Objects.equals(previous.getTitle(), sidebar.getTitle())) {
+            updateTitle(sidebar.getTitle());
+        }
+
+        List<Component> oldLines = previous.getLines();
+        int oldSize = oldLines.size();
+
+        for(int index = oldSize - 1; index >= size; index--) {
+            removeLine(index);
+        }
+
+        for(int index = 0; index < size; index++) {
+            Component line = lines.get(index);
+            if(index >= oldSize) {
+                createLine(index, line, size - index);
+                continue;
+            }
+            if(!Objects.equals(oldLines.get(index), line)) {
+                updateLine(index, line);
+            }
+            if(size != oldSize) {
+                updateScore(index, size - index);
+            }
+        }
+    }
+
+    /**
+     * Shows the board to the player, does nothing if the player already sees it
+     *
+     * @param player The player.
+     */
+    abstract void show(@NotNull Player player);
+
+    /**
+     * Hides the board from the player
+     *
+     * @param player The player.
+     */
+    abstract void hide(@NotNull Player player);
+
+    /**
+     * Forgets the player without sending anything, used when the player leaves
+     *
+     * @param player The player.
+     */
+    abstract void release(@NotNull Player player);
+
+    abstract void createObjective(@NotNull Component title);
+
+    abstract void updateTitle(@NotNull Component title);
+
+    abstract void createLine(int index, @NotNull Component line, int score);
+
+    abstract void updateLine(int index, @NotNull Component line);
+
+    abstract void updateScore(int index, int score);
+
+    abstract void removeLine(int index);
+
+    /**
+     * Returns the invisible scoreboard entry for the line
+     *
+     * @param index The index of the line.
+     * @return The entry name.
+     */
+    static @NotNull String entry(int index) {
+        return COLORS[index].toString() + ChatColor.RESET;
+    }
+}
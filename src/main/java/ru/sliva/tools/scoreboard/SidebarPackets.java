@@ -0,0 +1,180 @@
+package ru.sliva.tools.scoreboard;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.utility.MinecraftReflection;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+final class SidebarPackets {
+
+    private static final int OBJECTIVE_CREATE = 0;
+    private static final int OBJECTIVE_REMOVE = 1;
+    private static final int OBJECTIVE_UPDATE = 2;
+
+    private static final int TEAM_CREATE = 0;
+    private static final int TEAM_REMOVE = 1;
+    private static final int TEAM_UPDATE = 2;
+
+    private static final int SCORE_CHANGE = 0;
+    private static final int SCORE_REMOVE = 1;
+
+    private static final int SIDEBAR_SLOT = 1;
+    private static final int RESET_COLOR = 21;
+    private static final String ALWAYS = "always";
+    private static final String EMPTY = GsonComponentSerializer.gson().serialize(Component.empty());
+
+    private static final ProtocolManager protocolManager = ProtocolLibrary.getProtocolManager();
+    private static final Map<PacketType, Constructor<?>> constructors = new HashMap<>();
+    private static final Method wrappedBuffer;
+
+    static {
+        try {
+            wrappedBuffer = Class.forName("io.netty.buffer.Unpooled").getMethod("wrappedBuffer", byte[].class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private SidebarPackets() {}
+
+    static @NotNull PacketContainer createObjective(@NotNull String objective, @NotNull String title) {
+        return objective(objective, OBJECTIVE_CREATE, title);
+    }
+
+    static @NotNull PacketContainer updateObjective(@NotNull String objective, @NotNull String title) {
+        return objective(objective, OBJECTIVE_UPDATE, title);
+    }
+
+    static @NotNull PacketContainer removeObjective(@NotNull String objective) {
+        Writer writer = new Writer().writeString(objective).writeByte(OBJECTIVE_REMOVE);
+        return packet(PacketType.Play.Server.SCOREBOARD_OBJECTIVE, writer);
+    }
+
+    static @NotNull PacketContainer displayObjective(@NotNull String objective) {
+        Writer writer = new Writer().writeByte(SIDEBAR_SLOT).writeString(objective);
+        return packet(PacketType.Play.Server.SCOREBOARD_DISPLAY_OBJECTIVE, writer);
+    }
+
+    static @NotNull PacketContainer createTeam(@NotNull String team, @NotNull String prefix, @NotNull String entry) {
+        Writer writer = teamParameters(team, TEAM_CREATE, prefix).writeVarInt(1).writeString(entry);
+        return packet(PacketType.Play.Server.SCOREBOARD_TEAM, writer);
+    }
+
+    static @NotNull PacketContainer updateTeam(@NotNull String team, @NotNull String prefix) {
+        return packet(PacketType.Play.Server.SCOREBOARD_TEAM, teamParameters(team, TEAM_UPDATE, prefix));
+    }
+
+    static @NotNull PacketContainer removeTeam(@NotNull String team) {
+        Writer writer = new Writer().writeString(team).writeByte(TEAM_REMOVE);
+        return packet(PacketType.Play.Server.SCOREBOARD_TEAM, writer);
+    }
+
+    static @NotNull PacketContainer changeScore(@NotNull String objective, @NotNull String entry, int score) {
+        Writer writer = new Writer().writeString(entry).writeVarInt(SCORE_CHANGE).writeString(objective).writeVarInt(score);
+        return packet(PacketType.Play.Server.SCOREBOARD_SCORE, writer);
+    }
+
+    static @NotNull PacketContainer removeScore(@NotNull String objective, @NotNull String entry) {
+        Writer writer = new Writer().writeString(entry).writeVarInt(SCORE_REMOVE).writeString(objective);
+        return packet(PacketType.Play.Server.SCOREBOARD_SCORE, writer);
+    }
+
+    /**
+     * Sends the packet to the player
+     *
+     * @param player The receiver.
+     * @param packet The packet to send.
+     */
+    static void send(@NotNull Player player, @NotNull PacketContainer packet) {
+        try {
+            protocolManager.sendServerPacket(player, packet);
+        } catch (InvocationTargetException ex) {
+            throw new IllegalStateException("Cannot send sidebar packet to " + player.getName(), ex);
+        }
+    }
+
+    private static @NotNull PacketContainer objective(@NotNull String objective, int mode, @NotNull String title) {
+        Writer writer = new Writer().writeString(objective).writeByte(mode).writeString(title).writeVarInt(0);
+        return packet(PacketType.Play.Server.SCOREBOARD_OBJECTIVE, writer);
+    }
+
+    private static @NotNull Writer teamParameters(@NotNull String team, int mode, @NotNull String prefix) {
+        return new Writer()
+                .writeString(team)
+                .writeByte(mode)
+                .writeString(EMPTY)
+                .writeByte(0)
+                .writeString(ALWAYS)
+                .writeString(ALWAYS)
+                .writeVarInt(RESET_COLOR)
+                .writeString(prefix)
+                .writeString(EMPTY);
+    }
+
+    private static @NotNull PacketContainer packet(@NotNull PacketType type, @NotNull Writer writer) {
+        try {
+            Constructor<?> constructor = constructors.get(type);
+            if(constructor == null) {
+                constructor = type.getPacketClass().getDeclaredConstructor(MinecraftReflection.getPacketDataSerializerClass());
+                constructor.setAccessible(true);
+                constructors.put(type, constructor);
+            }
+            Object serializer = MinecraftReflection.getPacketDataSerializer(wrappedBuffer.invoke(null, (Object) writer.toByteArray()));
+            return new PacketContainer(type, constructor.newInstance(serializer));
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot create packet " + type, ex);
+        }
+    }
+
+    private static final class Writer {
+
+        private byte[] bytes = new byte[64];
+        private int size;
+
+        private @NotNull Writer writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+            return this;
+        }
+
+        private @NotNull Writer writeVarInt(int value) {
+            while((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            return writeByte(value);
+        }
+
+        private @NotNull Writer writeString(@NotNull String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(encoded.length);
+            ensure(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+            return this;
+        }
+
+        private byte @NotNull [] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensure(int length) {
+            if(size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package ru.sliva.tools.scoreboard;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+public final class SidebarTemplate {
+
+    private final Plugin plugin;
+
+    private final Component title;
+    private final List<Slot> slots;
+
+    private SidebarTemplate(Plugin plugin, Component title, List<Slot> slots) {
+        this.plugin = plugin;
+
+        this.title = title;
+        this.slots = slots;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SidebarTemplate template = (SidebarTemplate) o;
+        return Objects.equals(plugin, template.plugin) && Objects.equals(title, template.title) && Objects.equals(slots, template.slots);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(plugin, title, slots);
+    }
+
+    @Override
+    public String toString() {
+        return "SidebarTemplate{" +
+                "plugin=" + plugin +
+                ", title=" + title +
+                ", slots=" + slots +
+                '}';
+    }
+
+    /**
+     * Returns the plugin that owns this template
+     *
+     * @return The plugin.
+     */
+    public @NotNull Plugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Returns the title of the sidebar
+     *
+     * @return The title component.
+     */
+    public @NotNull Component getTitle() {
+        return title;
+    }
+
+    List<Slot> getSlots() {
+        return slots;
+    }
+
+    /**
+     * Returns a builder for creating a new instance of the template
+     *
+     * @return The Builder.
+     */
+    @Contract(value = " -> new", pure = true)
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    record Slot(@NotNull Component prefix, @Nullable Supplier<?> value, int period) {
+
+        /**
+         * Returns true if the line has a value that has to be polled
+         *
+         * @return Is the line dynamic.
+         */
+        boolean isDynamic() {
+            return value != null;
+        }
+
+        /**
+         * Renders the line with the value appended to the prefix
+         *
+         * @param value The polled value.
+         * @return The line component.
+         */
+        @NotNull Component render(@Nullable Object value) {
+            if(value instanceof ComponentLike component) {
+                return prefix.append(component);
+            }
+            return prefix.append(Component.text(String.valueOf(value)));
+        }
+    }
+
+    public static final class Builder {
+
+        private Plugin plugin;
+
+        private Component title;
+        private final List<Slot> slots = new ArrayList<>();
+
+        /**
+         * Build the SidebarTemplate
+         *
+         * @return A new SidebarTemplate.
+         */
+        @Contract(" -> new")
+        public @NotNull SidebarTemplate build() {
+            Validate.notNull(title, "Title cannot be null");
+            Validate.notNull(plugin, "Plugin cannot be null");
+            return new SidebarTemplate(plugin, title, List.copyOf(slots));
+        }
+
+        /**
+         * Sets the owner of the template, its sidebars are removed when the plugin is disabled
+         *
+         * @param plugin The plugin that is owner of the template.
+         * @return Current builder.
+         */
+        public Builder plugin(@NotNull Plugin plugin) {
+            Validate.notNull(plugin, "Plugin cannot be null");
+            this.plugin = plugin;
+            return this;
+        }
+
+        /**
+         * The title of the sidebar
+         *
+         * @param title The title of the sidebar.
+         * @return Current builder.
+         */
+        public Builder title(@NotNull Component title) {
+            Validate.notNull(title, "Title cannot be null");
+            this.title = title;
+            return this;
+        }
+
+        /**
+         * Adds a static line that is rendered once
+         *
+         * @param line The line.
+         * @return Current builder.
+         */
+        public Builder line(@NotNull Component line) {
+            Validate.notNull(line, "Line cannot be null");
+            return slot(new Slot(line, null, 0));
+        }
+
+        /**
+         * Adds a dynamic line, the value is polled every period and the line is re-rendered only when the value changes
+         *
+         * @param prefix The static part of the line, the value inherits its style.
+         * @param value The supplier of the value, components are appended as is, other values as text.
+         * @param period The period between polls, in ticks.
+         * @return Current builder.
+         */
+        public Builder line(@NotNull Component prefix, @NotNull Supplier<?> value, int period) {
+            Validate.notNull(prefix, "Prefix cannot be null");
+            Validate.notNull(value, "Value cannot be null");
+            Validate.isTrue(period > 0, "Period must be positive");
+            return slot(new Slot(prefix, value, period));
+        }
+
+        private Builder slot(@NotNull Slot slot) {
+            Validate.isTrue(slots.size() < Sidebar.MAX_LINES, "Sidebar cannot have more than " + Sidebar.MAX_LINES + " lines");
+            slots.add(slot);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.sliva.tools.scoreboard;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+final class TemplatedSidebar {
+
+    private final SidebarTemplate template;
+    private final Object[] values;
+    private final Component[] lines;
+    private final long[] nextPolls;
+
+    private Sidebar sidebar;
+
+    TemplatedSidebar(@NotNull SidebarTemplate template, long tick) {
+        this.template = template;
+
+        List<SidebarTemplate.Slot> slots = template.getSlots();
+        int size = slots.size();
+        this.values = new Object[size];
+        this.lines = new Component[size];
+        this.nextPolls = new long[size];
+
+        for(int index = 0; index < size; index++) {
+            SidebarTemplate.Slot slot = slots.get(index);
+            if(slot.isDynamic()) {
+                Object value = slot.value().get();
+                values[index] = value;
+                lines[index] = slot.render(value);
+                nextPolls[index] = tick + slot.period();
+            } else {
+                lines[index] = slot.prefix();
+            }
+        }
+        this.sidebar = render();
+    }
+
+    /**
+     * Returns the plugin that owns the template
+     *
+     * @return The plugin.
+     */
+    @NotNull Plugin getPlugin() {
+        return template.getPlugin();
+    }
+
+    /**
+     * Returns the last rendered sidebar
+     *
+     * @return The sidebar.
+     */
+    @NotNull Sidebar getSidebar() {
+        return sidebar;
+    }
+
+    /**
+     * Polls the values that are due and re-renders the lines whose values changed
+     *
+     * @param tick The current tick.
+     * @return The new sidebar, or null if nothing changed.
+     */
+    @Nullable Sidebar poll(long tick) {
+        List<SidebarTemplate.Slot> slots = template.getSlots();
+        boolean changed = false;
+
+        for(int index = 0; index < lines.length; index++) {
+            SidebarTemplate.Slot slot = slots.get(index);
+            if(!slot.isDynamic() || tick < nextPolls[index]) {
+                continue;
+            }
+            nextPolls[index] = tick + slot.period();
+            Object value = slot.value().get();
+            if(!Objects.equals(values[index], value)) {
+                values[index] = value;
+                lines[index] = slot.render(value);
+                changed = true;
+            }
+        }
+
+        if(!changed) {
+            return null;
+        }
+        return sidebar = render();
+    }
+
+    private @NotNull Sidebar render() {
+        return Sidebar.builder()
+                .plugin(template.getPlugin())
+                .title(template.getTitle())
+                .lines(Arrays.asList(lines))
+                .build();
+    }
+}